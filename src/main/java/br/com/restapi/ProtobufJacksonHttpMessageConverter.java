@@ -0,0 +1,105 @@
+package br.com.restapi;
+
+import br.com.restapi.vo.v1.BookVO;
+import br.com.restapi.vo.v1.PersonVO;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.hateoas.SlicedModel;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// application/x-protobuf for PersonVO, BookVO and collection models of them, using the messages in proto/restapi.proto
+public class ProtobufJacksonHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private final ProtobufMapper mapper = ProtobufMapper.builder()
+            .enable(StreamWriteFeature.IGNORE_UNKNOWN)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .serializationInclusion(JsonInclude.Include.NON_NULL)
+            .build();
+
+    private final Map<Class<?>, ProtobufSchema> schemas;
+
+    private final Map<Class<?>, ProtobufSchema> pageSchemas;
+
+    public ProtobufJacksonHttpMessageConverter() {
+        super(MediaType.parseMediaType("application/x-protobuf"));
+        NativeProtobufSchema proto;
+        try (InputStream in = new ClassPathResource("proto/restapi.proto").getInputStream()) {
+            proto = ProtobufSchemaLoader.std.loadNative(in, false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load proto/restapi.proto", e);
+        }
+        schemas = Map.of(PersonVO.class, proto.forType("Person"), BookVO.class, proto.forType("Book"));
+        pageSchemas = Map.of(PersonVO.class, proto.forType("PersonPage"), BookVO.class, proto.forType("BookPage"));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return schemas.containsKey(clazz) || CollectionModel.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return schemas.containsKey(clazz) && canRead(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return mapper.readerFor(clazz).with(schemas.get(clazz)).readValue(inputMessage.getBody());
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        var out = StreamUtils.nonClosing(outputMessage.getBody());
+        if (body instanceof CollectionModel<?> model) {
+            writePage(model, out);
+        } else {
+            mapper.writer(schemas.get(body.getClass())).writeValue(out, body);
+        }
+    }
+
+    private void writePage(CollectionModel<?> model, OutputStream out) throws IOException {
+        List<Object> content = new ArrayList<>();
+        for (Object item : model.getContent()) {
+            content.add(item instanceof EntityModel<?> entity ? entity.getContent() : item);
+        }
+        // the page messages share field numbers, so an empty page can use either schema
+        Class<?> type = content.isEmpty() ? PersonVO.class : content.get(0).getClass();
+        ProtobufSchema schema = pageSchemas.get(type);
+        if (schema == null) {
+            throw new HttpMessageNotWritableException("No protobuf message for " + type.getName());
+        }
+
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("content", content);
+        if (model instanceof PagedModel<?> paged && paged.getMetadata() != null) {
+            page.put("page", paged.getMetadata());
+        } else if (model instanceof SlicedModel<?> sliced && sliced.getMetadata() != null) {
+            page.put("page", sliced.getMetadata());
+        }
+        page.put("links", model.getLinks());
+        mapper.writer(schema).writeValue(out, page);
+    }
+}
@@ -1,14 +1,53 @@
 package br.com.restapi;
 
+import br.com.restapi.serialization.YamlBlockGenerator;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
 import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConversionException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
 import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class YamlJacksonToHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+    // root serializers resolved once per response class instead of on every write
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
     public YamlJacksonToHttpMessageConverter() {
         super(new YAMLMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL),
                 MediaType.parseMediaType("application/x-yaml"));
     }
+
+    // reading stays on YAMLMapper; writing skips SnakeYAML's emitter for the same block-style output
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (object instanceof MappingJacksonValue) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        ObjectMapper mapper = getObjectMapper();
+        ObjectWriter writer = writers.computeIfAbsent(object.getClass(), mapper::writerFor);
+        var out = new OutputStreamWriter(StreamUtils.nonClosing(outputMessage.getBody()), StandardCharsets.UTF_8);
+        try (var generator = new YamlBlockGenerator(mapper.getFactory().getGeneratorFeatures(), mapper, out)) {
+            writer.writeValue(generator, object);
+        } catch (InvalidDefinitionException ex) {
+            throw new HttpMessageConversionException("Type definition error: " + ex.getType(), ex);
+        } catch (JsonProcessingException ex) {
+            throw new HttpMessageNotWritableException("Could not write YAML: " + ex.getOriginalMessage(), ex);
+        }
+    }
 }
@@ -0,0 +1,36 @@
+package br.com.restapi.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+@Component
+public class CountCache {
+
+    private final Cache<String, Long> counts;
+
+    public CountCache(@Value("${pagination.count-cache.ttl:30s}") Duration ttl,
+                      @Value("${pagination.count-cache.max-size:1000}") long maxSize,
+                      MeterRegistry meterRegistry) {
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "pagination.counts");
+    }
+
+    public long get(String key, LongSupplier loader) {
+        return counts.get(key, k -> loader.getAsLong());
+    }
+
+    public void invalidate(String keyPrefix) {
+        counts.asMap().keySet().removeIf(key -> key.startsWith(keyPrefix));
+    }
+}
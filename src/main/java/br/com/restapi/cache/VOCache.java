@@ -0,0 +1,56 @@
+package br.com.restapi.cache;
+
+import br.com.restapi.util.AfterCommit;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+// Cached VOs carry no links and are never handed out directly; callers get a copy.
+// A load holds its key until it finishes, so an invalidation issued after commit
+// always removes whatever a concurrent read loaded before the commit.
+public class VOCache<V> {
+
+    private final Cache<Long, V> cache;
+
+    private final UnaryOperator<V> copier;
+
+    private final Timer loadTimer;
+
+    public VOCache(String name, long maxSize, Duration ttl, UnaryOperator<V> copier, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.copier = copier;
+        // the Caffeine binder only times loads for LoadingCache
+        this.loadTimer = Timer.builder("cache.load.duration")
+                .tag("cache", name)
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    public V get(Long id, Function<Long, V> loader) {
+        return copier.apply(cache.get(id, key -> loadTimer.record(() -> loader.apply(key))));
+    }
+
+    public void put(Long id, V vo) {
+        V snapshot = copier.apply(vo);
+        AfterCommit.run(() -> cache.put(id, snapshot));
+    }
+
+    public void invalidate(Long id) {
+        AfterCommit.run(() -> cache.invalidate(id));
+    }
+
+    public void invalidateAll(Collection<Long> ids) {
+        AfterCommit.run(() -> cache.invalidateAll(ids));
+    }
+}
@@ -0,0 +1,31 @@
+package br.com.restapi.config;
+
+import br.com.restapi.cache.VOCache;
+import br.com.restapi.mapper.BookMapper;
+import br.com.restapi.mapper.PersonMapper;
+import br.com.restapi.vo.v1.BookVO;
+import br.com.restapi.vo.v1.PersonVO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public VOCache<PersonVO> personCache(@Value("${cache.person.max-size:10000}") long maxSize,
+                                         @Value("${cache.person.ttl:10m}") Duration ttl,
+                                         MeterRegistry meterRegistry) {
+        return new VOCache<>("person.vo", maxSize, ttl, PersonMapper::copy, meterRegistry);
+    }
+
+    @Bean
+    public VOCache<BookVO> bookCache(@Value("${cache.book.max-size:10000}") long maxSize,
+                                     @Value("${cache.book.ttl:10m}") Duration ttl,
+                                     MeterRegistry meterRegistry) {
+        return new VOCache<>("book.vo", maxSize, ttl, BookMapper::copy, meterRegistry);
+    }
+}
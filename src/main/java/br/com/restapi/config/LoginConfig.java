@@ -0,0 +1,76 @@
+package br.com.restapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "security.login")
+public class LoginConfig {
+    private int poolSize = 4;
+    private int queueCapacity = 32;
+    private Duration timeout = Duration.ofSeconds(10);
+    private int pbkdf2Iterations = 185000;
+    private List<Integer> acceptedPbkdf2Iterations = new ArrayList<>();
+    private Duration verificationCacheTtl = Duration.ofMinutes(5);
+    private long verificationCacheSize = 10000;
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getPbkdf2Iterations() {
+        return pbkdf2Iterations;
+    }
+
+    public void setPbkdf2Iterations(int pbkdf2Iterations) {
+        this.pbkdf2Iterations = pbkdf2Iterations;
+    }
+
+    public List<Integer> getAcceptedPbkdf2Iterations() {
+        return acceptedPbkdf2Iterations;
+    }
+
+    public void setAcceptedPbkdf2Iterations(List<Integer> acceptedPbkdf2Iterations) {
+        this.acceptedPbkdf2Iterations = acceptedPbkdf2Iterations;
+    }
+
+    public Duration getVerificationCacheTtl() {
+        return verificationCacheTtl;
+    }
+
+    public void setVerificationCacheTtl(Duration verificationCacheTtl) {
+        this.verificationCacheTtl = verificationCacheTtl;
+    }
+
+    public long getVerificationCacheSize() {
+        return verificationCacheSize;
+    }
+
+    public void setVerificationCacheSize(long verificationCacheSize) {
+        this.verificationCacheSize = verificationCacheSize;
+    }
+}
@@ -2,6 +2,7 @@ package br.com.restapi.config;
 
 import br.com.restapi.security.jwt.JwtTokenFilter;
 import br.com.restapi.security.jwt.JwtTokenProvider;
+import br.com.restapi.security.password.VerificationCachingPasswordEncoder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -22,18 +23,39 @@ import java.util.Map;
 @Configuration
 public class SecurityConfig{
 
+    private static final int LEGACY_PBKDF2_ITERATIONS = 185000;
+
     @Autowired
     private JwtTokenProvider tokenProvider;
 
+    @Autowired
+    private LoginConfig loginConfig;
+
     @Bean
     public PasswordEncoder passwordEncoder(){
         Map<String,PasswordEncoder> encoders = new HashMap();
-        Pbkdf2PasswordEncoder pbkdf2PasswordEncoder = new Pbkdf2PasswordEncoder("",8
-                ,185000, Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+        // Hashes stored without an iteration suffix (including the unprefixed ones in users.password)
+        // were produced with the legacy count, every other count is tagged as {pbkdf2-<iterations>}
+        Pbkdf2PasswordEncoder pbkdf2PasswordEncoder = pbkdf2(LEGACY_PBKDF2_ITERATIONS);
         encoders.put("pbkdf2", pbkdf2PasswordEncoder);
-        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder("pbkdf2",encoders);
+        for (Integer iterations : loginConfig.getAcceptedPbkdf2Iterations()) {
+            encoders.put(pbkdf2Id(iterations), pbkdf2(iterations));
+        }
+        String idForEncode = pbkdf2Id(loginConfig.getPbkdf2Iterations());
+        encoders.putIfAbsent(idForEncode, pbkdf2(loginConfig.getPbkdf2Iterations()));
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(idForEncode,encoders);
         passwordEncoder.setDefaultPasswordEncoderForMatches(pbkdf2PasswordEncoder);
-        return passwordEncoder;
+        return new VerificationCachingPasswordEncoder(passwordEncoder,
+                loginConfig.getVerificationCacheTtl(), loginConfig.getVerificationCacheSize());
+    }
+
+    private static Pbkdf2PasswordEncoder pbkdf2(int iterations) {
+        return new Pbkdf2PasswordEncoder("",8
+                ,iterations, Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+    }
+
+    private static String pbkdf2Id(int iterations) {
+        return iterations == LEGACY_PBKDF2_ITERATIONS ? "pbkdf2" : "pbkdf2-" + iterations;
     }
 
     @Bean
@@ -61,6 +83,7 @@ public class SecurityConfig{
                                         "/v3/api-docs/**"
                                 ).permitAll()
                                 .requestMatchers("/api/**").authenticated()
+                                .requestMatchers("/actuator/**").authenticated()
                                 .requestMatchers("/users").denyAll()
                 )
                 .cors(cors -> {})
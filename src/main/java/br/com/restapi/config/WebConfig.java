@@ -1,10 +1,18 @@
 package br.com.restapi.config;
 
+import br.com.restapi.ProtobufJacksonHttpMessageConverter;
 import br.com.restapi.YamlJacksonToHttpMessageConverter;
+import br.com.restapi.file.StreamingMultipartResolver;
+import br.com.restapi.serialization.XmlOutputTuning;
+import com.fasterxml.jackson.dataformat.xml.XmlFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.xml.MappingJackson2XmlHttpMessageConverter;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.servlet.DispatcherServlet;
 import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -15,12 +23,27 @@ import java.util.List;
 public class WebConfig implements WebMvcConfigurer {
 
     private static final MediaType MEDIA_TYPE_APPLICATION_YML = MediaType.valueOf("application/x-yaml");
+    private static final MediaType MEDIA_TYPE_APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+    private static final MediaType MEDIA_TYPE_APPLICATION_PROTOBUF = MediaType.valueOf("application/x-protobuf");
     @Value("${cors.originPatterns:default}")
     private String crossOriginPatterns = "";
 
+    // single-file uploads are streamed by the controller, see StreamingMultipartParser
+    @Bean(name = DispatcherServlet.MULTIPART_RESOLVER_BEAN_NAME)
+    public MultipartResolver multipartResolver() {
+        return new StreamingMultipartResolver("/api/file/v1/uploadFile");
+    }
+
     @Override
     public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (HttpMessageConverter<?> converter : converters) {
+            if (converter instanceof MappingJackson2XmlHttpMessageConverter xml
+                    && xml.getObjectMapper().getFactory() instanceof XmlFactory factory) {
+                XmlOutputTuning.skipValidation(factory);
+            }
+        }
         converters.add(new YamlJacksonToHttpMessageConverter());
+        converters.add(new ProtobufJacksonHttpMessageConverter());
     }
 
     @Override
@@ -56,7 +79,12 @@ public class WebConfig implements WebMvcConfigurer {
                 .defaultContentType(MediaType.APPLICATION_JSON)
                 .mediaType("json", MediaType.APPLICATION_JSON)
                 .mediaType("xml", MediaType.APPLICATION_XML)
-                .mediaType("x-yaml", MEDIA_TYPE_APPLICATION_YML);
+                .mediaType("x-yaml", MEDIA_TYPE_APPLICATION_YML)
+                // binary formats for service-to-service calls; CBOR and Smile converters are registered by
+                // Spring MVC whenever their Jackson modules are on the classpath
+                .mediaType("cbor", MediaType.APPLICATION_CBOR)
+                .mediaType("smile", MEDIA_TYPE_APPLICATION_SMILE)
+                .mediaType("x-protobuf", MEDIA_TYPE_APPLICATION_PROTOBUF);
 
     }
 }
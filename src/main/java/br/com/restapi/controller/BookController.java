@@ -1,23 +1,33 @@
 package br.com.restapi.controller;
 
+import br.com.restapi.etag.VersionTag;
+import br.com.restapi.export.ExportFormat;
 import br.com.restapi.service.BookService;
 import br.com.restapi.service.PersonService;
 import br.com.restapi.util.MediaType;
+import br.com.restapi.vo.v1.BatchItemResultVO;
 import br.com.restapi.vo.v1.BookVO;
+import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.PagedModel;
+import org.springframework.hateoas.SlicedModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -33,7 +43,8 @@ public class BookController {
     }
 
     @GetMapping(
-            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML})
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF})
     @Operation(summary = "Finds all books", description = "Find all book", tags = {"Book"}
             ,responses = {
             @ApiResponse(description = "Success",responseCode = "200",
@@ -52,13 +63,82 @@ public class BookController {
             @RequestParam(value = "size", defaultValue = "12") Integer size,
             @RequestParam(value = "direction", defaultValue = "asc") String direction
     ) {
+        return ResponseEntity.ok(service.findAll(pageable(page, size, direction), false));
+    }
+
+    @GetMapping(params = "count=cached",
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF})
+    @Operation(summary = "Finds all books with a cached total", description = "Finds all books, reusing a recently computed total count", tags = {"Book"}
+            ,responses = {
+            @ApiResponse(description = "Success",responseCode = "200",
+                    content = {
+                            @Content(
+                                    mediaType = "application/json",
+                                    array = @ArraySchema(schema = @Schema(implementation = BookVO.class))
+                            )}),
+            @ApiResponse(description = "Bad Request",responseCode = "400",content = {@Content}),
+            @ApiResponse(description = "Unauthorized",responseCode = "401",content = {@Content}),
+            @ApiResponse(description = "Internal Error",responseCode = "500",content = {@Content}),
+    })
+    public ResponseEntity<PagedModel<EntityModel<BookVO>>> findAllCachedCount(
+            @RequestParam(value = "page", defaultValue = "0") Integer page,
+            @RequestParam(value = "size", defaultValue = "12") Integer size,
+            @RequestParam(value = "direction", defaultValue = "asc") String direction) {
+        return ResponseEntity.ok(service.findAll(pageable(page, size, direction), true));
+    }
+
+    @GetMapping(params = "count=none",
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF})
+    @Operation(summary = "Finds books without counting them", description = "Finds a slice of books " +
+            "without running the count query", tags = {"Book"}
+            ,responses = {
+            @ApiResponse(description = "Success",responseCode = "200",
+                    content = {
+                            @Content(
+                                    mediaType = "application/json",
+                                    array = @ArraySchema(schema = @Schema(implementation = BookVO.class))
+                            )}),
+            @ApiResponse(description = "Bad Request",responseCode = "400",content = {@Content}),
+            @ApiResponse(description = "Unauthorized",responseCode = "401",content = {@Content}),
+            @ApiResponse(description = "Internal Error",responseCode = "500",content = {@Content}),
+    })
+    public ResponseEntity<SlicedModel<EntityModel<BookVO>>> findAllSlice(
+            @RequestParam(value = "page", defaultValue = "0") Integer page,
+            @RequestParam(value = "size", defaultValue = "12") Integer size,
+            @RequestParam(value = "direction", defaultValue = "asc") String direction) {
+        return ResponseEntity.ok(service.findAllSlice(pageable(page, size, direction)));
+    }
+
+    @GetMapping(params = "after",
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF})
+    @Operation(summary = "Finds books after a cursor", description = "Finds books after an opaque cursor, " +
+            "pass an empty cursor to start from the beginning", tags = {"Book"}
+            ,responses = {
+            @ApiResponse(description = "Success",responseCode = "200",
+                    content = {
+                            @Content(
+                                    mediaType = "application/json",
+                                    array = @ArraySchema(schema = @Schema(implementation = BookVO.class))
+                            )}),
+            @ApiResponse(description = "Bad Request",responseCode = "400",content = {@Content}),
+            @ApiResponse(description = "Unauthorized",responseCode = "401",content = {@Content}),
+            @ApiResponse(description = "Internal Error",responseCode = "500",content = {@Content}),
+    })
+    public ResponseEntity<CollectionModel<BookVO>> findAllAfter(
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size", defaultValue = "12") Integer size,
+            @RequestParam(value = "direction", defaultValue = "asc") String direction) {
+
         var sortDirection = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
-        Pageable pageable = PageRequest.of(page,size,Sort.by(sortDirection,"title"));
-        return ResponseEntity.ok(service.findAll(pageable));
+        return ResponseEntity.ok(service.findAllAfter(after, size, sortDirection));
     }
 
     @GetMapping(value = "/{id}",
-            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML})
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF})
     @Operation(summary = "Finds a book", description = "Finds a book", tags = {"Book"}
             ,responses = {
             @ApiResponse(description = "Success",responseCode = "200",
@@ -77,8 +157,10 @@ public class BookController {
     }
 
     @PostMapping(
-            consumes = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML},
-            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML}
+            consumes = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF},
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF}
     )
     @Operation(summary = "Adds a new book", description = "Adds a new Book by passing" +
             "in a JSON, XML or YML representation of book", tags = {"Book"}
@@ -96,9 +178,52 @@ public class BookController {
         return service.create(book);
     }
 
+    @GetMapping(value = "/export",
+            produces = {MediaType.APPLICATION_NDJSON, MediaType.TEXT_CSV, MediaType.APPLICATION_JSON,
+                    MediaType.APPLICATION_XML, MediaType.APPLICATION_YML})
+    @Operation(summary = "Exports all books", description = "Streams every book as NDJSON, CSV or a JSON, XML or YAML array, without paging or links", tags = {"Book"}
+            ,responses = {
+            @ApiResponse(description = "Success",responseCode = "200",content = {@Content}),
+            @ApiResponse(description = "Unauthorized",responseCode = "401",content = {@Content}),
+            @ApiResponse(description = "Not Acceptable",responseCode = "406",content = {@Content}),
+            @ApiResponse(description = "Internal Error",responseCode = "500",content = {@Content}),
+    })
+    public void export(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                       HttpServletResponse response) throws IOException {
+        var format = ExportFormat.negotiate(accept);
+        response.setContentType(format.getMediaType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        service.export(format, response.getOutputStream());
+    }
+
+    @PostMapping(value = "/batch",
+            consumes = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF},
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF}
+    )
+    @Operation(summary = "Adds or updates many books", description = "Adds books without an id and updates " +
+            "books with one, reporting the outcome of every item", tags = {"Book"}
+            ,responses = {
+            @ApiResponse(description = "Success",responseCode = "200",
+                    content = @Content(
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = BatchItemResultVO.class))
+                    )),
+            @ApiResponse(description = "Bad Request",responseCode = "400",content = {@Content}),
+            @ApiResponse(description = "Unauthorized",responseCode = "401",content = {@Content}),
+            @ApiResponse(description = "Payload Too Large",responseCode = "413",content = {@Content}),
+            @ApiResponse(description = "Internal Error",responseCode = "500",content = {@Content}),
+    })
+    public List<BatchItemResultVO> saveBatch(@RequestBody List<BookVO> books) {
+        return service.saveBatch(books);
+    }
+
     @PutMapping(
-            consumes = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML},
-            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML})
+            consumes = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF},
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF})
     @Operation(summary = "Updates a book", description = "Updates a Book by passing" +
             "in a JSON, XML or YML representation of book", tags = {"Book"}
             ,responses = {
@@ -110,10 +235,32 @@ public class BookController {
             @ApiResponse(description = "Bad Request",responseCode = "400",content = {@Content}),
             @ApiResponse(description = "Unauthorized",responseCode = "401",content = {@Content}),
             @ApiResponse(description = "Not Found",responseCode = "404",content = {@Content}),
+            @ApiResponse(description = "Precondition Failed",responseCode = "412",content = {@Content}),
+            @ApiResponse(description = "Internal Error",responseCode = "500",content = {@Content}),
+    })
+    public BookVO update(@RequestBody BookVO book,
+                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return service.update(book, VersionTag.parseIfMatch(ifMatch));
+    }
+
+    // merge patch has its own media type, so it does not collide with the plain PATCH /{id} mapping
+    @PatchMapping(value = "/{id}", consumes = MediaType.APPLICATION_MERGE_PATCH_JSON,
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF})
+    @Operation(summary = "Partially updates a book", description = "Applies a JSON Merge Patch (application/merge-patch+json) " +
+            "to a Book; only the changed columns are written", tags = {"Book"}
+            ,responses = {
+            @ApiResponse(description = "Updated",responseCode = "200",
+                    content = @Content(schema = @Schema(implementation = BookVO.class))),
+            @ApiResponse(description = "Bad Request",responseCode = "400",content = {@Content}),
+            @ApiResponse(description = "Unauthorized",responseCode = "401",content = {@Content}),
+            @ApiResponse(description = "Not Found",responseCode = "404",content = {@Content}),
+            @ApiResponse(description = "Precondition Failed",responseCode = "412",content = {@Content}),
             @ApiResponse(description = "Internal Error",responseCode = "500",content = {@Content}),
     })
-    public BookVO update(@RequestBody BookVO book) {
-        return service.update(book);
+    public BookVO patch(@PathVariable(value = "id") Long id, @RequestBody JsonNode patch,
+                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return service.patch(id, patch, VersionTag.parseIfMatch(ifMatch));
     }
 
     @DeleteMapping(value = "/{id}")
@@ -135,4 +282,10 @@ public class BookController {
         service.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    // shared by the exact, cached-count and count-free listings, which differ only in the service call
+    private static Pageable pageable(Integer page, Integer size, String direction) {
+        var sortDirection = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return PageRequest.of(page, size, Sort.by(sortDirection, "title"));
+    }
 }
@@ -1,21 +1,30 @@
 package br.com.restapi.controller;
 
+import br.com.restapi.exception.MyFileNotFoundException;
+import br.com.restapi.file.FileMetadata;
+import br.com.restapi.file.RangeFileSender;
+import br.com.restapi.file.StoredFile;
+import br.com.restapi.file.StreamingMultipartParser;
+import br.com.restapi.file.UploadExecutor;
 import br.com.restapi.service.FileStorageService;
 import br.com.restapi.vo.v1.UploadFileResponseVO;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.core.io.Resource;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.support.MissingServletRequestPartException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 @Tag(name = "File endpoint")
 @RestController
@@ -26,48 +35,76 @@ public class FileController {
 
     private FileStorageService service;
 
-    public FileController(FileStorageService fileStorageService) {
+    private StreamingMultipartParser parser;
+
+    private UploadExecutor uploadExecutor;
+
+    public FileController(FileStorageService fileStorageService, StreamingMultipartParser parser,
+                          UploadExecutor uploadExecutor) {
         this.service = fileStorageService;
+        this.parser = parser;
+        this.uploadExecutor = uploadExecutor;
     }
 
+    // not parsed ahead by Spring (see WebConfig): the part goes from the socket straight into the upload directory
     @PostMapping("/uploadFile")
-    public UploadFileResponseVO uploadFile(@RequestParam("file") MultipartFile file) {
-        logger.info("Storing file to disk");
+    public UploadFileResponseVO uploadFile(HttpServletRequest request) throws MissingServletRequestPartException {
+        logger.info("Streaming file to disk");
 
-        var fileName = service.storageFile(file);
-        String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
-                .path("/api/file/v1/downloadFile/")
-                .path(fileName)
-                .toUriString();
-        return new UploadFileResponseVO(fileName, fileDownloadUri, file.getContentType(), file.getSize());
+        UploadFileResponseVO response = parser.readFile(request, "file", (fileName, contentType, content) -> {
+            StoredFile stored = service.storeFile(fileName, content);
+            return toResponse(stored.name(), contentType, stored.size());
+        });
+        if (response == null) {
+            throw new MissingServletRequestPartException("file");
+        }
+        return response;
     }
 
     @PostMapping("/uploadMultipleFiles")
     public List<UploadFileResponseVO> uploadMultipleFiles(@RequestParam("files") MultipartFile[] files) {
         logger.info("Storing files to disk");
 
-        return Arrays.asList(files).stream().map(file -> uploadFile(file)).collect(Collectors.toList());
+        // written concurrently; one file failing doesn't fail the others
+        List<CompletableFuture<String>> stored = uploadExecutor.submitAll(Arrays.asList(files), service::storageFile);
+        List<UploadFileResponseVO> responses = new ArrayList<>(files.length);
+        for (int i = 0; i < files.length; i++) {
+            MultipartFile file = files[i];
+            try {
+                responses.add(toResponse(stored.get(i).join(), file.getContentType(), file.getSize()));
+            } catch (CompletionException e) {
+                logger.warning("Could not store " + file.getOriginalFilename() + ": " + e.getCause());
+                responses.add(UploadFileResponseVO.failed(file.getOriginalFilename(), file.getContentType(),
+                        file.getSize(), e.getCause().getMessage()));
+            }
+        }
+        return responses;
     }
 
     @GetMapping("/downloadFile/{filename:.+}")
-    public ResponseEntity<Resource> downloadFile(@PathVariable("filename") String fileName, HttpServletRequest request) {
+    public void downloadFile(@PathVariable("filename") String fileName, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
         logger.info("Downloading file");
 
-        Resource resource = service.loadFileAsresource(fileName);
-        String contentType = "";
+        // type, size and validators come from the metadata index, not from the file
+        FileMetadata metadata = service.loadMetadata(fileName);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + fileName + "\"");
         try {
-            contentType = request.getServletContext().getMimeType(resource.getFile().getAbsolutePath());
-        } catch (Exception e) {
-            logger.info("Could not determine file type!");
+            RangeFileSender.send(service.locate(metadata), metadata, request, response);
+        } catch (NoSuchFileException e) {
+            // removed behind the index's back; nothing has been written yet
+            service.evict(fileName);
+            response.reset();
+            throw new MyFileNotFoundException("File not found " + fileName, e);
         }
-        if (contentType.isBlank()) {
-            contentType = "application/octet-stream";
-        }
-
-        return ResponseEntity.ok().contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
+    }
 
+    private UploadFileResponseVO toResponse(String fileName, String contentType, long size) {
+        String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/file/v1/downloadFile/")
+                .path(fileName)
+                .toUriString();
+        return new UploadFileResponseVO(fileName, fileDownloadUri, contentType, size);
     }
 }
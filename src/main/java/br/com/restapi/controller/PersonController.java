@@ -1,22 +1,35 @@
 package br.com.restapi.controller;
 
+import br.com.restapi.etag.VersionTag;
+import br.com.restapi.export.ExportFormat;
 import br.com.restapi.service.PersonService;
 import br.com.restapi.util.MediaType;
+import br.com.restapi.vo.v1.BatchItemResultVO;
+import br.com.restapi.vo.v1.BulkRequestVO;
+import br.com.restapi.vo.v1.BulkResultVO;
 import br.com.restapi.vo.v1.PersonVO;
+import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.PagedModel;
+import org.springframework.hateoas.SlicedModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 @RestController
 @RequestMapping("/api/person/v1")
@@ -30,7 +43,8 @@ public class PersonController {
     }
 
     @GetMapping(
-            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML})
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF})
     @Operation(summary = "Finds all people", description = "Find all people", tags = {"People"}
     ,responses = {
             @ApiResponse(description = "Success",responseCode = "200",
@@ -48,15 +62,82 @@ public class PersonController {
             @RequestParam(value = "page", defaultValue = "0") Integer page,
             @RequestParam(value = "size", defaultValue = "12") Integer size,
             @RequestParam(value = "direction", defaultValue = "asc") String direction) {
+        return ResponseEntity.ok(service.findAll(pageable(page, size, direction), false));
+    }
 
-        var sortDirection = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC: Sort.Direction.ASC;
+    @GetMapping(params = "count=cached",
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF})
+    @Operation(summary = "Finds all people with a cached total", description = "Finds all people, reusing a recently computed total count", tags = {"People"}
+            ,responses = {
+            @ApiResponse(description = "Success",responseCode = "200",
+                    content = {
+                            @Content(
+                                    mediaType = "application/json",
+                                    array = @ArraySchema(schema = @Schema(implementation = PersonVO.class))
+                            )}),
+            @ApiResponse(description = "Bad Request",responseCode = "400",content = {@Content}),
+            @ApiResponse(description = "Unauthorized",responseCode = "401",content = {@Content}),
+            @ApiResponse(description = "Internal Error",responseCode = "500",content = {@Content}),
+    })
+    public ResponseEntity<PagedModel<EntityModel<PersonVO>>> findAllCachedCount(
+            @RequestParam(value = "page", defaultValue = "0") Integer page,
+            @RequestParam(value = "size", defaultValue = "12") Integer size,
+            @RequestParam(value = "direction", defaultValue = "asc") String direction) {
+        return ResponseEntity.ok(service.findAll(pageable(page, size, direction), true));
+    }
 
-        Pageable pageable = PageRequest.of(page, size,Sort.by(sortDirection,"firstName"));
-        return ResponseEntity.ok(service.findAll(pageable));
+    @GetMapping(params = "count=none",
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF})
+    @Operation(summary = "Finds people without counting them", description = "Finds a slice of people " +
+            "without running the count query", tags = {"People"}
+            ,responses = {
+            @ApiResponse(description = "Success",responseCode = "200",
+                    content = {
+                            @Content(
+                                    mediaType = "application/json",
+                                    array = @ArraySchema(schema = @Schema(implementation = PersonVO.class))
+                            )}),
+            @ApiResponse(description = "Bad Request",responseCode = "400",content = {@Content}),
+            @ApiResponse(description = "Unauthorized",responseCode = "401",content = {@Content}),
+            @ApiResponse(description = "Internal Error",responseCode = "500",content = {@Content}),
+    })
+    public ResponseEntity<SlicedModel<EntityModel<PersonVO>>> findAllSlice(
+            @RequestParam(value = "page", defaultValue = "0") Integer page,
+            @RequestParam(value = "size", defaultValue = "12") Integer size,
+            @RequestParam(value = "direction", defaultValue = "asc") String direction) {
+        return ResponseEntity.ok(service.findAllSlice(pageable(page, size, direction)));
+    }
+
+    @GetMapping(params = "after",
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF})
+    @Operation(summary = "Finds people after a cursor", description = "Finds people after an opaque cursor, " +
+            "pass an empty cursor to start from the beginning", tags = {"People"}
+            ,responses = {
+            @ApiResponse(description = "Success",responseCode = "200",
+                    content = {
+                            @Content(
+                                    mediaType = "application/json",
+                                    array = @ArraySchema(schema = @Schema(implementation = PersonVO.class))
+                            )}),
+            @ApiResponse(description = "Bad Request",responseCode = "400",content = {@Content}),
+            @ApiResponse(description = "Unauthorized",responseCode = "401",content = {@Content}),
+            @ApiResponse(description = "Internal Error",responseCode = "500",content = {@Content}),
+    })
+    public ResponseEntity<CollectionModel<PersonVO>> findAllAfter(
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size", defaultValue = "12") Integer size,
+            @RequestParam(value = "direction", defaultValue = "asc") String direction) {
+
+        var sortDirection = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return ResponseEntity.ok(service.findAllAfter(after, size, sortDirection));
     }
 
     @GetMapping(value = "/findPersonByName/{firstName}",
-            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML})
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF})
     @Operation(summary = "Finds people by name", description = "Finds people by name", tags = {"People"}
             ,responses = {
             @ApiResponse(description = "Success",responseCode = "200",
@@ -75,16 +156,60 @@ public class PersonController {
             @RequestParam(value = "page", defaultValue = "0") Integer page,
             @RequestParam(value = "size", defaultValue = "12") Integer size,
             @RequestParam(value = "direction", defaultValue = "asc") String direction) {
+        return ResponseEntity.ok(service.findPersonsByName(pageable(page, size, direction), firstName, false));
+    }
 
-        var sortDirection = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC: Sort.Direction.ASC;
+    @GetMapping(value = "/findPersonByName/{firstName}", params = "count=cached",
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF})
+    @Operation(summary = "Finds people by name with a cached total", description = "Finds people by name, reusing a recently computed total count", tags = {"People"}
+            ,responses = {
+            @ApiResponse(description = "Success",responseCode = "200",
+                    content = {
+                            @Content(
+                                    mediaType = "application/json",
+                                    array = @ArraySchema(schema = @Schema(implementation = PersonVO.class))
+                            )}),
+            @ApiResponse(description = "Bad Request",responseCode = "400",content = {@Content}),
+            @ApiResponse(description = "Unauthorized",responseCode = "401",content = {@Content}),
+            @ApiResponse(description = "Internal Error",responseCode = "500",content = {@Content}),
+    })
+    public ResponseEntity<PagedModel<EntityModel<PersonVO>>> findPersonsByNameCachedCount(
+            @PathVariable(value = "firstName") String firstName,
+            @RequestParam(value = "page", defaultValue = "0") Integer page,
+            @RequestParam(value = "size", defaultValue = "12") Integer size,
+            @RequestParam(value = "direction", defaultValue = "asc") String direction) {
+        return ResponseEntity.ok(service.findPersonsByName(pageable(page, size, direction), firstName, true));
+    }
 
-        Pageable pageable = PageRequest.of(page, size,Sort.by(sortDirection,"firstName"));
-        return ResponseEntity.ok(service.findPersonsByName(pageable,firstName));
+    @GetMapping(value = "/findPersonByName/{firstName}", params = "count=none",
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF})
+    @Operation(summary = "Finds people by name without counting them", description = "Finds a slice of people by name " +
+            "without running the count query", tags = {"People"}
+            ,responses = {
+            @ApiResponse(description = "Success",responseCode = "200",
+                    content = {
+                            @Content(
+                                    mediaType = "application/json",
+                                    array = @ArraySchema(schema = @Schema(implementation = PersonVO.class))
+                            )}),
+            @ApiResponse(description = "Bad Request",responseCode = "400",content = {@Content}),
+            @ApiResponse(description = "Unauthorized",responseCode = "401",content = {@Content}),
+            @ApiResponse(description = "Internal Error",responseCode = "500",content = {@Content}),
+    })
+    public ResponseEntity<SlicedModel<EntityModel<PersonVO>>> findPersonsByNameSlice(
+            @PathVariable(value = "firstName") String firstName,
+            @RequestParam(value = "page", defaultValue = "0") Integer page,
+            @RequestParam(value = "size", defaultValue = "12") Integer size,
+            @RequestParam(value = "direction", defaultValue = "asc") String direction) {
+        return ResponseEntity.ok(service.findPersonsByNameSlice(pageable(page, size, direction), firstName));
     }
 
     @CrossOrigin(origins = "http://localhost:8080")
     @GetMapping(value = "/{id}",
-            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML})
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF})
     @Operation(summary = "Finds a person", description = "Finds a person", tags = {"People"}
             ,responses = {
             @ApiResponse(description = "Success",responseCode = "200",
@@ -103,7 +228,8 @@ public class PersonController {
     }
 
     @PatchMapping(value = "/{id}",
-            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML})
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF})
     @Operation(summary = "Disable a specific Person by your ID"
             , description = "Disable a specific Person by your ID", tags = {"People"}
             ,responses = {
@@ -122,10 +248,30 @@ public class PersonController {
         return service.disablePerson(id);
     }
 
+    @PatchMapping(value = "/bulk",
+            consumes = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF},
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF})
+    @Operation(summary = "Disables people in bulk", description = "Disables every person matching the given ids and/or first_name and gender filter and returns how many rows changed", tags = {"People"}
+            ,responses = {
+            @ApiResponse(description = "Success",responseCode = "200",
+                    content = @Content(schema = @Schema(implementation = BulkResultVO.class))),
+            @ApiResponse(description = "Bad Request",responseCode = "400",content = {@Content}),
+            @ApiResponse(description = "Unauthorized",responseCode = "401",content = {@Content}),
+            @ApiResponse(description = "Payload Too Large",responseCode = "413",content = {@Content}),
+            @ApiResponse(description = "Internal Error",responseCode = "500",content = {@Content}),
+    })
+    public BulkResultVO disablePersons(@RequestBody BulkRequestVO request) {
+        return service.disablePersons(request);
+    }
+
     @CrossOrigin(origins = "http://localhost:8080")
     @PostMapping(
-            consumes = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML},
-            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML}
+            consumes = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF},
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF}
     )
     @Operation(summary = "Adds a new person", description = "Adds a new Person by passing" +
             "in a JSON, XML or YML representation of person", tags = {"People"}
@@ -143,9 +289,52 @@ public class PersonController {
         return service.create(person);
     }
 
+    @GetMapping(value = "/export",
+            produces = {MediaType.APPLICATION_NDJSON, MediaType.TEXT_CSV, MediaType.APPLICATION_JSON,
+                    MediaType.APPLICATION_XML, MediaType.APPLICATION_YML})
+    @Operation(summary = "Exports all people", description = "Streams every person as NDJSON, CSV or a JSON, XML or YAML array, without paging or links", tags = {"People"}
+            ,responses = {
+            @ApiResponse(description = "Success",responseCode = "200",content = {@Content}),
+            @ApiResponse(description = "Unauthorized",responseCode = "401",content = {@Content}),
+            @ApiResponse(description = "Not Acceptable",responseCode = "406",content = {@Content}),
+            @ApiResponse(description = "Internal Error",responseCode = "500",content = {@Content}),
+    })
+    public void export(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                       HttpServletResponse response) throws IOException {
+        var format = ExportFormat.negotiate(accept);
+        response.setContentType(format.getMediaType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        service.export(format, response.getOutputStream());
+    }
+
+    @PostMapping(value = "/batch",
+            consumes = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF},
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF}
+    )
+    @Operation(summary = "Adds or updates many people", description = "Adds people without an id and updates " +
+            "people with one, reporting the outcome of every item", tags = {"People"}
+            ,responses = {
+            @ApiResponse(description = "Success",responseCode = "200",
+                    content = @Content(
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = BatchItemResultVO.class))
+                    )),
+            @ApiResponse(description = "Bad Request",responseCode = "400",content = {@Content}),
+            @ApiResponse(description = "Unauthorized",responseCode = "401",content = {@Content}),
+            @ApiResponse(description = "Payload Too Large",responseCode = "413",content = {@Content}),
+            @ApiResponse(description = "Internal Error",responseCode = "500",content = {@Content}),
+    })
+    public List<BatchItemResultVO> saveBatch(@RequestBody List<PersonVO> people) {
+        return service.saveBatch(people);
+    }
+
     @PutMapping(
-            consumes = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML},
-            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML})
+            consumes = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF},
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF})
     @Operation(summary = "Updates a person", description = "Updates a Person by passing" +
             "in a JSON, XML or YML representation of person", tags = {"People"}
             ,responses = {
@@ -157,10 +346,32 @@ public class PersonController {
             @ApiResponse(description = "Bad Request",responseCode = "400",content = {@Content}),
             @ApiResponse(description = "Unauthorized",responseCode = "401",content = {@Content}),
             @ApiResponse(description = "Not Found",responseCode = "404",content = {@Content}),
+            @ApiResponse(description = "Precondition Failed",responseCode = "412",content = {@Content}),
+            @ApiResponse(description = "Internal Error",responseCode = "500",content = {@Content}),
+    })
+    public PersonVO update(@RequestBody PersonVO person,
+                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return service.update(person, VersionTag.parseIfMatch(ifMatch));
+    }
+
+    // merge patch has its own media type, so it does not collide with the plain PATCH /{id} mapping
+    @PatchMapping(value = "/{id}", consumes = MediaType.APPLICATION_MERGE_PATCH_JSON,
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF})
+    @Operation(summary = "Partially updates a person", description = "Applies a JSON Merge Patch (application/merge-patch+json) " +
+            "to a Person; only the changed columns are written", tags = {"People"}
+            ,responses = {
+            @ApiResponse(description = "Updated",responseCode = "200",
+                    content = @Content(schema = @Schema(implementation = PersonVO.class))),
+            @ApiResponse(description = "Bad Request",responseCode = "400",content = {@Content}),
+            @ApiResponse(description = "Unauthorized",responseCode = "401",content = {@Content}),
+            @ApiResponse(description = "Not Found",responseCode = "404",content = {@Content}),
+            @ApiResponse(description = "Precondition Failed",responseCode = "412",content = {@Content}),
             @ApiResponse(description = "Internal Error",responseCode = "500",content = {@Content}),
     })
-    public PersonVO update(@RequestBody PersonVO person) {
-        return service.update(person);
+    public PersonVO patch(@PathVariable(value = "id") Long id, @RequestBody JsonNode patch,
+                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return service.patch(id, patch, VersionTag.parseIfMatch(ifMatch));
     }
 
     @DeleteMapping(value = "/{id}")
@@ -182,4 +393,28 @@ public class PersonController {
         service.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    @DeleteMapping(value = "/bulk",
+            consumes = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF},
+            produces = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,MediaType.APPLICATION_YML,
+                    MediaType.APPLICATION_CBOR, MediaType.APPLICATION_SMILE, MediaType.APPLICATION_PROTOBUF})
+    @Operation(summary = "Deletes people in bulk", description = "Deletes every person matching the given ids and/or first_name and gender filter and returns how many rows were removed", tags = {"People"}
+            ,responses = {
+            @ApiResponse(description = "Success",responseCode = "200",
+                    content = @Content(schema = @Schema(implementation = BulkResultVO.class))),
+            @ApiResponse(description = "Bad Request",responseCode = "400",content = {@Content}),
+            @ApiResponse(description = "Unauthorized",responseCode = "401",content = {@Content}),
+            @ApiResponse(description = "Payload Too Large",responseCode = "413",content = {@Content}),
+            @ApiResponse(description = "Internal Error",responseCode = "500",content = {@Content}),
+    })
+    public BulkResultVO deletePersons(@RequestBody BulkRequestVO request) {
+        return service.deletePersons(request);
+    }
+
+    // shared by the exact, cached-count and count-free listings, which differ only in the service call
+    private static Pageable pageable(Integer page, Integer size, String direction) {
+        var sortDirection = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return PageRequest.of(page, size, Sort.by(sortDirection, "firstName"));
+    }
 }
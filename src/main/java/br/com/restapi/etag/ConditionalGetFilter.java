@@ -0,0 +1,102 @@
+package br.com.restapi.etag;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// ETags on person/book reads and pages. Runs after Spring Security, so a 304 still needs a valid token.
+@Component
+public class ConditionalGetFilter extends OncePerRequestFilter {
+
+    // single rows, listings and name searches; exports stream and are never buffered
+    private static final Pattern RESOURCE =
+            Pattern.compile("^/api/(person|book)/v1(?:/(\\d+)|/findPersonByName/[^/]+)?$");
+
+    private final EtagIndex index;
+
+    public ConditionalGetFilter(EtagIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !RESOURCE.matcher(path(request)).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Matcher matcher = RESOURCE.matcher(path(request));
+        matcher.matches();
+        String resource = matcher.group(1);
+        Long id = matcher.group(2) == null ? null : Long.valueOf(matcher.group(2));
+
+        // the body differs per representation and, through its links, per host
+        String variant = request.getHeader(HttpHeaders.ACCEPT) + "|" + request.getHeader(HttpHeaders.HOST);
+        String page = id == null ? path(request) + "?" + request.getQueryString() + "|" + variant : null;
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        // shared caches must key on Accept too, on the 200 and on the 304 alike
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+
+        String known = id != null ? index.getRow(resource, id, variant) : index.getPage(resource, page);
+        if (known != null && matches(ifNoneMatch, known)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            response.setHeader(HttpHeaders.ETAG, known);
+            return;
+        }
+
+        long generation = index.generation(resource);
+        var wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK) {
+            // rows come tagged with their version and format by VersionTagAdvice, pages are hashed
+            String etag = wrapper.getHeader(HttpHeaders.ETAG);
+            if (etag == null) {
+                etag = "\"" + DigestUtils.md5DigestAsHex(wrapper.getContentAsByteArray()) + "\"";
+            }
+            if (id != null) {
+                index.putRow(resource, id, variant, etag, generation);
+            } else {
+                index.putPage(resource, page, etag, generation);
+            }
+            wrapper.setHeader(HttpHeaders.ETAG, etag);
+            if (matches(ifNoneMatch, etag)) {
+                wrapper.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    // If-None-Match uses the weak comparison, so a W/ prefix still matches
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
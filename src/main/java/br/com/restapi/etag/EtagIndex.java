@@ -0,0 +1,102 @@
+package br.com.restapi.etag;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// ETags last served per row and per page, so a matching If-None-Match can be answered without the database.
+// Row entries are dropped when the row is written; page entries are only valid for the write generation
+// of their table they were computed in.
+@Component
+public class EtagIndex {
+
+    private record RowKey(String resource, long id) {
+    }
+
+    private record PageKey(String resource, String request) {
+    }
+
+    private record PageEntry(String etag, long generation) {
+    }
+
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    // variant (representation) -> etag for every row that has been served
+    private final Cache<RowKey, Map<String, String>> rows;
+
+    private final Cache<PageKey, PageEntry> pages;
+
+    public EtagIndex(@Value("${etag.max-size:100000}") long maxSize,
+                     @Value("${etag.ttl:10m}") Duration ttl,
+                     MeterRegistry meterRegistry) {
+        this.rows = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, rows, "etag.rows");
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "etag.pages");
+    }
+
+    public long generation(String resource) {
+        return counter(resource).get();
+    }
+
+    public String getRow(String resource, long id, String variant) {
+        var variants = rows.getIfPresent(new RowKey(resource, id));
+        return variants == null ? null : variants.get(variant);
+    }
+
+    // skipped when the table was written since the response was computed, it may already be stale
+    public void putRow(String resource, long id, String variant, String etag, long generation) {
+        rows.asMap().compute(new RowKey(resource, id), (key, variants) -> {
+            if (generation(resource) != generation) {
+                return variants;
+            }
+            var updated = variants == null ? new HashMap<String, String>() : new HashMap<>(variants);
+            updated.put(variant, etag);
+            return Map.copyOf(updated);
+        });
+    }
+
+    public String getPage(String resource, String request) {
+        var entry = pages.getIfPresent(new PageKey(resource, request));
+        return entry == null || entry.generation() != generation(resource) ? null : entry.etag();
+    }
+
+    public void putPage(String resource, String request, String etag, long generation) {
+        if (generation(resource) == generation) {
+            pages.put(new PageKey(resource, request), new PageEntry(etag, generation));
+        }
+    }
+
+    // called after a write commits; the generation moves first so in-flight responses are not recorded
+    public void touch(String resource, Long id) {
+        counter(resource).incrementAndGet();
+        rows.invalidate(new RowKey(resource, id));
+    }
+
+    public void touchAll(String resource, Collection<Long> ids) {
+        counter(resource).incrementAndGet();
+        ids.forEach(id -> rows.invalidate(new RowKey(resource, id)));
+    }
+
+    private AtomicLong counter(String resource) {
+        return generations.computeIfAbsent(resource, r -> new AtomicLong());
+    }
+}
@@ -0,0 +1,36 @@
+package br.com.restapi.etag;
+
+import br.com.restapi.model.Book;
+import br.com.restapi.model.Person;
+import br.com.restapi.util.AfterCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+@Component
+public class EtagListener {
+
+    // absent in JPA-only slices such as @DataJpaTest
+    private final ObjectProvider<EtagIndex> index;
+
+    public EtagListener(ObjectProvider<EtagIndex> index) {
+        this.index = index;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Object entity) {
+        if (entity instanceof Person person) {
+            touch("person", person.getId());
+        } else if (entity instanceof Book book) {
+            touch("book", book.getId());
+        }
+    }
+
+    private void touch(String resource, Long id) {
+        index.ifAvailable(etagIndex -> AfterCommit.run(() -> etagIndex.touch(resource, id)));
+    }
+}
@@ -0,0 +1,39 @@
+package br.com.restapi.etag;
+
+import br.com.restapi.exception.PreconditionFailedException;
+import org.springframework.http.MediaType;
+
+import java.util.regex.Pattern;
+
+// Single rows are tagged with their @Version column and the representation, e.g. "3-xml", so a cache
+// never answers one format with another.
+public class VersionTag {
+
+    private static final Pattern TAG = Pattern.compile("^\"(\\d+)(?:-[\\w.+-]+)?\"$");
+
+    private VersionTag() {
+    }
+
+    public static String of(Long version, MediaType type) {
+        String format = type.getSubtype();
+        if (format.startsWith("x-")) {
+            format = format.substring(2);
+        }
+        return "\"" + version + "-" + format + "\"";
+    }
+
+    // the version an If-Match header asks for, or null when absent or "*"; weak tags never match.
+    // Every representation carries the same version, so a tag taken from any of them will do.
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        for (String candidate : ifMatch.split(",")) {
+            var matcher = TAG.matcher(candidate.trim());
+            if (matcher.matches()) {
+                return Long.valueOf(matcher.group(1));
+            }
+        }
+        throw new PreconditionFailedException("If-Match does not name a version of this resource");
+    }
+}
@@ -0,0 +1,39 @@
+package br.com.restapi.etag;
+
+import br.com.restapi.controller.BookController;
+import br.com.restapi.controller.PersonController;
+import br.com.restapi.vo.v1.BookVO;
+import br.com.restapi.vo.v1.PersonVO;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Tags single rows once content negotiation has picked the format; ConditionalGetFilter answers the 304s
+@ControllerAdvice(assignableTypes = {PersonController.class, BookController.class})
+public class VersionTagAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        Long version = null;
+        if (body instanceof PersonVO person) {
+            version = person.getVersion();
+        } else if (body instanceof BookVO book) {
+            version = book.getVersion();
+        }
+        if (version != null) {
+            response.getHeaders().setETag(VersionTag.of(version, selectedContentType));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,14 @@
+package br.com.restapi.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidBulkRequestException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidBulkRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,92 @@
+package br.com.restapi.export;
+
+import br.com.restapi.serialization.XmlOutputTuning;
+import br.com.restapi.serialization.YamlBlockGenerator;
+import br.com.restapi.util.MediaType;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.dataformat.xml.XmlFactory;
+import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
+
+import javax.xml.namespace.QName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+
+public enum ExportFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    CSV(MediaType.TEXT_CSV),
+    JSON(MediaType.APPLICATION_JSON),
+    YAML(MediaType.APPLICATION_YML),
+    XML(MediaType.APPLICATION_XML);
+
+    // the servlet container owns the response stream, so writers never close it
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET).build();
+    private static final XmlFactory XML_FACTORY = XmlOutputTuning.skipValidation(XmlFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET).build());
+    private static final int YAML_FEATURES = JsonGenerator.Feature.collectDefaults()
+            & ~JsonGenerator.Feature.AUTO_CLOSE_TARGET.getMask();
+
+    private final String mediaType;
+
+    ExportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    // picks the format for an Accept header, honouring q-values; NDJSON when anything goes
+    public static ExportFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return NDJSON;
+        }
+        var requested = org.springframework.http.MediaType.parseMediaTypes(accept);
+        requested.sort(Comparator.comparingDouble(org.springframework.http.MediaType::getQualityValue).reversed());
+        for (var type : requested) {
+            for (ExportFormat format : values()) {
+                if (type.includes(org.springframework.http.MediaType.parseMediaType(format.mediaType))) {
+                    return format;
+                }
+            }
+        }
+        return NDJSON;
+    }
+
+    // root and row name only matter for XML, which needs a document element
+    public RowWriter open(OutputStream out, List<String> columns, String root, String row) throws IOException {
+        return switch (this) {
+            case NDJSON -> {
+                var generator = JSON_FACTORY.createGenerator(out);
+                generator.setRootValueSeparator(null);
+                yield new JacksonRowWriter(generator, columns, true);
+            }
+            case CSV -> new CsvRowWriter(out, columns);
+            case JSON -> {
+                var generator = JSON_FACTORY.createGenerator(out);
+                generator.writeStartArray();
+                yield new JacksonRowWriter(generator, columns, false);
+            }
+            case YAML -> {
+                var generator = new YamlBlockGenerator(YAML_FEATURES, null,
+                        new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                generator.writeStartArray();
+                yield new JacksonRowWriter(generator, columns, false);
+            }
+            case XML -> {
+                var generator = (ToXmlGenerator) XML_FACTORY.createGenerator(out);
+                generator.setNextName(new QName(root));
+                generator.writeStartObject();
+                generator.writeFieldName(row);
+                generator.writeStartArray();
+                yield new JacksonRowWriter(generator, columns, false);
+            }
+        };
+    }
+}
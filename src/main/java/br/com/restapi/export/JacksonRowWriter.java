@@ -0,0 +1,74 @@
+package br.com.restapi.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+// one object per row; closing ends whatever array or element the format opened
+class JacksonRowWriter implements RowWriter {
+
+    private final JsonGenerator generator;
+
+    private final List<String> columns;
+
+    private final boolean lineDelimited;
+
+    // same rendering as the API's own Date serialization
+    private final StdDateFormat dateFormat = new StdDateFormat();
+
+    JacksonRowWriter(JsonGenerator generator, List<String> columns, boolean lineDelimited) {
+        this.generator = generator;
+        this.columns = columns;
+        this.lineDelimited = lineDelimited;
+    }
+
+    @Override
+    public void write(Object[] values) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < columns.size(); i++) {
+            generator.writeFieldName(columns.get(i));
+            writeValue(values[i]);
+        }
+        generator.writeEndObject();
+        if (lineDelimited) {
+            generator.writeRaw('\n');
+        }
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Boolean bool) {
+            generator.writeBoolean(bool);
+        } else if (value instanceof BigDecimal decimal) {
+            generator.writeNumber(decimal);
+        } else if (value instanceof Double || value instanceof Float) {
+            generator.writeNumber(((Number) value).doubleValue());
+        } else if (value instanceof Number number) {
+            generator.writeNumber(number.longValue());
+        } else if (value instanceof Date date) {
+            generator.writeString(dateFormat.format(date));
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // not left to AUTO_CLOSE_JSON_CONTENT, which the YAML generator ignores
+        var context = generator.getOutputContext();
+        while (!context.inRoot()) {
+            if (context.inArray()) {
+                generator.writeEndArray();
+            } else {
+                generator.writeEndObject();
+            }
+            context = generator.getOutputContext();
+        }
+        generator.close();
+    }
+}
@@ -0,0 +1,10 @@
+package br.com.restapi.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+public interface RowWriter extends Closeable {
+
+    // values line up with the column names the writer was opened with
+    void write(Object[] values) throws IOException;
+}
@@ -0,0 +1,65 @@
+package br.com.restapi.export;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.List;
+
+// Streams a query straight from a forward-only cursor into a RowWriter, one row in memory at a time.
+// On MySQL the fetch size only takes effect with useCursorFetch=true on the JDBC URL;
+// without it Connector/J buffers the whole result set.
+@Component
+public class TableExporter {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int fetchSize;
+
+    public TableExporter(JdbcTemplate jdbcTemplate,
+                         @Value("${export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    public void export(String sql, List<String> columns, String root, String row,
+                       ExportFormat format, OutputStream out) throws IOException {
+        try (RowWriter writer = format.open(out, columns, root, row)) {
+            Object[] values = new Object[columns.size()];
+            int[] types = new int[columns.size()];
+            boolean[] typesRead = {false};
+            try {
+                jdbcTemplate.query(con -> {
+                    var statement = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(fetchSize);
+                    return statement;
+                }, rs -> {
+                    if (!typesRead[0]) {
+                        var metaData = rs.getMetaData();
+                        for (int i = 0; i < types.length; i++) {
+                            types[i] = metaData.getColumnType(i + 1);
+                        }
+                        typesRead[0] = true;
+                    }
+                    for (int i = 0; i < values.length; i++) {
+                        // drivers disagree on getObject for DATETIME (Timestamp vs LocalDateTime)
+                        values[i] = types[i] == Types.TIMESTAMP || types[i] == Types.DATE
+                                ? rs.getTimestamp(i + 1) : rs.getObject(i + 1);
+                    }
+                    try {
+                        writer.write(values);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package br.com.restapi.file;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+// Checksums of the flat upload directory, kept as an append-only log of name, size, mtime and sha-256
+// lines (last one wins) so a restart doesn't read every file again. A checksum only counts while the
+// file still has the size and mtime it was computed for. At startup the log is compacted and names
+// whose file is gone are dropped.
+public class ChecksumLog implements Closeable {
+
+    private static final String TEMP_PREFIX = ".upload-";
+
+    private final Logger logger = Logger.getLogger(ChecksumLog.class.getName());
+
+    private final Path log;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final BufferedWriter writer;
+
+    private record Entry(long size, long lastModified, String checksum) {
+    }
+
+    public ChecksumLog(Path log) throws IOException {
+        this.log = log;
+        if (Files.exists(log)) {
+            try (BufferedReader reader = Files.newBufferedReader(log, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t");
+                    // a line cut short by a crash has no checksum yet
+                    if (fields.length == 4 && fields[3].length() == 64) {
+                        entries.put(URLDecoder.decode(fields[0], StandardCharsets.UTF_8),
+                                new Entry(Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[3]));
+                    }
+                }
+            }
+        }
+        compact();
+        this.writer = Files.newBufferedWriter(log, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    // the recorded checksum, or null when there is none or the file changed since
+    public String get(FileMetadata metadata) {
+        Entry entry = entries.get(metadata.name());
+        return entry != null && entry.size() == metadata.size() && entry.lastModified() == metadata.lastModified()
+                ? entry.checksum() : null;
+    }
+
+    public void record(FileMetadata metadata) throws IOException {
+        Entry entry = new Entry(metadata.size(), metadata.lastModified(), metadata.checksum());
+        synchronized (writer) {
+            writer.write(line(metadata.name(), entry));
+            writer.flush();
+            entries.put(metadata.name(), entry);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writer) {
+            writer.close();
+        }
+    }
+
+    private void compact() throws IOException {
+        entries.keySet().removeIf(name -> !Files.isRegularFile(log.resolveSibling(name)));
+        Path temp = Files.createTempFile(log.getParent(), TEMP_PREFIX, ".log");
+        try (BufferedWriter compacted = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                compacted.write(line(entry.getKey(), entry.getValue()));
+            }
+        }
+        Files.move(temp, log, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Checksum log has " + entries.size() + " stored files");
+    }
+
+    private static String line(String name, Entry entry) {
+        return URLEncoder.encode(name, StandardCharsets.UTF_8) + "\t" + entry.size() + "\t" + entry.lastModified()
+                + "\t" + entry.checksum() + "\n";
+    }
+}
@@ -0,0 +1,136 @@
+package br.com.restapi.file;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+// Stores each distinct content once, as blobs/<2 hex>/<2 hex>/<sha-256>, and keeps file names as an
+// append-only log of name -> hash lines (last one wins). Re-uploading known content costs a hash and
+// a log line; names are swapped atomically, so concurrent uploads under one name can't mix their bytes.
+// At startup the log is compacted and blobs no name points to any more are deleted.
+public class ContentAddressedStore implements Closeable {
+
+    private static final String TEMP_PREFIX = ".upload-";
+
+    private final Logger logger = Logger.getLogger(ContentAddressedStore.class.getName());
+
+    private final Path blobs;
+
+    private final Path log;
+
+    private final Map<String, String> names = new ConcurrentHashMap<>();
+
+    private final BufferedWriter writer;
+
+    public ContentAddressedStore(Path root) throws IOException {
+        this.blobs = root.resolve("blobs");
+        this.log = root.resolve("names.log");
+        Files.createDirectories(blobs);
+
+        if (Files.exists(log)) {
+            try (BufferedReader reader = Files.newBufferedReader(log, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int tab = line.indexOf('\t');
+                    // a line cut short by a crash has no hash yet
+                    if (tab > 0 && line.length() - tab - 1 == 64) {
+                        names.put(URLDecoder.decode(line.substring(0, tab), StandardCharsets.UTF_8), line.substring(tab + 1));
+                    }
+                }
+            }
+        }
+        compact();
+        this.writer = Files.newBufferedWriter(log, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    public StoredFile store(String name, InputStream content) throws IOException {
+        MessageDigest digest = Checksums.newDigest();
+        Path temp = Files.createTempFile(blobs, TEMP_PREFIX, ".tmp");
+        try {
+            long size = Files.copy(new DigestInputStream(content, digest), temp, StandardCopyOption.REPLACE_EXISTING);
+            String hash = Checksums.hex(digest);
+            Path blob = blob(hash);
+            if (Files.exists(blob)) {
+                // never renamed, so on most filesystems the copy is dropped before it reaches the disk
+                Files.delete(temp);
+            } else {
+                Files.createDirectories(blob.getParent());
+                Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE);
+            }
+            synchronized (writer) {
+                writer.write(URLEncoder.encode(name, StandardCharsets.UTF_8) + "\t" + hash + "\n");
+                writer.flush();
+                names.put(name, hash);
+            }
+            return new StoredFile(name, size, hash);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    // the blob holding the content last stored under this name, or null
+    public Path resolve(String name) {
+        String hash = names.get(name);
+        return hash == null ? null : blob(hash);
+    }
+
+    // snapshot of every name and the hash it points to
+    public Map<String, String> names() {
+        return Map.copyOf(names);
+    }
+
+    public Path blob(String hash) {
+        return blobs.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writer) {
+            writer.close();
+        }
+    }
+
+    private void compact() throws IOException {
+        Path temp = Files.createTempFile(log.getParent(), TEMP_PREFIX, ".log");
+        try (BufferedWriter compacted = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, String> entry : names.entrySet()) {
+                compacted.write(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8) + "\t" + entry.getValue() + "\n");
+            }
+        }
+        Files.move(temp, log, StandardCopyOption.ATOMIC_MOVE);
+
+        Set<String> referenced = new HashSet<>(names.values());
+        int removed = 0;
+        try (Stream<Path> files = Files.walk(blobs)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                if (!referenced.contains(file.getFileName().toString())) {
+                    Files.delete(file);
+                    removed++;
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        logger.info("Content store has " + names.size() + " names over " + referenced.size()
+                + " blobs, removed " + removed + " unreferenced files");
+    }
+}
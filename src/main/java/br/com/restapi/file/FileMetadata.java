@@ -0,0 +1,15 @@
+package br.com.restapi.file;
+
+// what a download needs to know about a stored file without going to the filesystem
+public record FileMetadata(String name, long size, String contentType, long lastModified, String checksum) {
+
+    // strong either way: the content hash once known, and until then size and mtime, as most servers do
+    public String etag() {
+        return checksum != null ? "\"" + checksum + "\""
+                : "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    public FileMetadata withChecksum(String checksum) {
+        return new FileMetadata(name, size, contentType, lastModified, checksum);
+    }
+}
@@ -0,0 +1,127 @@
+package br.com.restapi.file;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+// Size, type, mtime and checksum of every stored file, so downloads (and their 304s) are answered
+// without a stat or a MIME lookup. Uploads write their entry here; at startup the whole directory is
+// indexed again in the background. A file whose checksum isn't known yet is only stat'ed, tagged by size
+// and mtime meanwhile, and read through on the executor; finished checksums go to the given listener.
+public class FileMetadataIndex {
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final Logger logger = Logger.getLogger(FileMetadataIndex.class.getName());
+
+    private final Map<String, FileMetadata> entries = new ConcurrentHashMap<>();
+
+    private final Function<String, String> mimeTypes;
+
+    private final Executor executor;
+
+    private final Consumer<FileMetadata> checksummed;
+
+    public FileMetadataIndex(Function<String, String> mimeTypes, Executor executor, Consumer<FileMetadata> checksummed) {
+        this.mimeTypes = mimeTypes;
+        this.executor = executor;
+        this.checksummed = checksummed;
+    }
+
+    public FileMetadata get(String name) {
+        return entries.get(name);
+    }
+
+    public void remove(String name) {
+        entries.remove(name);
+    }
+
+    // Stats the file; without a checksum the entry is provisional until the executor has read the file.
+    // Returns null, indexing nothing, when the path isn't a regular file.
+    public FileMetadata put(String name, Path file, String checksum) throws IOException {
+        FileMetadata metadata = describe(name, file, checksum);
+        if (metadata != null) {
+            entries.put(name, metadata);
+            if (checksum == null) {
+                executor.execute(() -> {
+                    try {
+                        complete(metadata, file);
+                    } catch (IOException e) {
+                        logger.warning("Couldn't checksum " + name + ": " + e);
+                    }
+                });
+            }
+        }
+        return metadata;
+    }
+
+    // Indexes the given name -> file pairs on the executor, reading through only the files the given
+    // function has no checksum for. Entries written meanwhile by uploads are newer than what the scan
+    // finds, so they are kept.
+    public CompletableFuture<Void> rebuild(Map<String, Path> files, Function<FileMetadata, String> checksums) {
+        long start = System.nanoTime();
+        CompletableFuture<?>[] tasks = files.entrySet().stream()
+                .map(entry -> CompletableFuture.runAsync(() -> {
+                    try {
+                        FileMetadata scanned = describe(entry.getKey(), entry.getValue(), null);
+                        if (scanned == null) {
+                            return;
+                        }
+                        String checksum = checksums.apply(scanned);
+                        if (checksum != null) {
+                            keep(scanned.withChecksum(checksum));
+                        } else {
+                            complete(scanned, entry.getValue());
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(tasks).whenComplete((done, failure) -> {
+            if (failure != null) {
+                logger.warning("File index rebuild skipped some files: " + failure.getCause());
+            }
+            logger.info("Indexed " + entries.size() + " stored files in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        });
+    }
+
+    // reads the file through and indexes the checksum, unless the file was replaced while being read
+    private void complete(FileMetadata scanned, Path file) throws IOException {
+        FileMetadata metadata = describe(scanned.name(), file, Checksums.of(file));
+        if (metadata != null && sameFile(metadata, scanned) && keep(metadata) == metadata) {
+            checksummed.accept(metadata);
+        }
+    }
+
+    // only fills in a provisional entry for the same file, or a missing one
+    private FileMetadata keep(FileMetadata found) {
+        return entries.merge(found.name(), found,
+                (existing, scanned) -> existing.checksum() == null && sameFile(existing, scanned) ? scanned : existing);
+    }
+
+    private static boolean sameFile(FileMetadata a, FileMetadata b) {
+        return a.size() == b.size() && a.lastModified() == b.lastModified();
+    }
+
+    private FileMetadata describe(String name, Path file, String checksum) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        if (!attributes.isRegularFile()) {
+            return null;
+        }
+        String contentType = mimeTypes.apply(name);
+        if (contentType == null || contentType.isBlank()) {
+            contentType = DEFAULT_CONTENT_TYPE;
+        }
+        return new FileMetadata(name, attributes.size(), contentType, attributes.lastModifiedTime().toMillis(), checksum);
+    }
+}
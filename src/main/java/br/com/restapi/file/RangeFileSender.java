@@ -0,0 +1,176 @@
+package br.com.restapi.file;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Writes a stored file with byte-range support (RFC 9110 section 14). Whole files and single ranges are
+// handed to Tomcat's sendfile when the connector offers it, so the bytes never enter the JVM; otherwise,
+// and for multipart/byteranges, they go through FileChannel.transferTo onto the response stream.
+// Headers, validators and 304s all come from the FileMetadata; the file is first opened for the body.
+public final class RangeFileSender {
+
+    // request attributes Tomcat's Http11Processor picks up once the servlet returns, as its DefaultServlet does
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // DefaultServlet's sendfileSize: smaller bodies are cheaper to copy through the response buffer
+    private static final long SENDFILE_MIN_LENGTH = 48 * 1024;
+
+    private RangeFileSender() {
+    }
+
+    public static void send(Path file, FileMetadata metadata, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        long length = metadata.size();
+        long lastModified = metadata.lastModified();
+        String etag = metadata.etag();
+        String contentType = metadata.contentType();
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // If-None-Match / If-Modified-Since (304) and If-Match / If-Unmodified-Since (412); sets ETag and Last-Modified
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        List<long[]> ranges = null;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && ifRangeMatches(request, etag, lastModified)) {
+            ranges = satisfiable(range, length);
+            if (ranges != null && ranges.isEmpty()) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+        }
+        boolean head = "HEAD".equals(request.getMethod());
+
+        if (ranges == null || ranges.size() == 1) {
+            long start = ranges == null ? 0 : ranges.get(0)[0];
+            long end = ranges == null ? length - 1 : ranges.get(0)[1];
+            if (ranges != null) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+            response.setContentType(contentType);
+            response.setContentLengthLong(end - start + 1);
+            if (head || end < start) {
+                return;
+            }
+            if (end - start + 1 >= SENDFILE_MIN_LENGTH && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+                // Tomcat opens the file only after we return, too late to answer anything but a broken 200
+                if (!Files.isRegularFile(file)) {
+                    throw new NoSuchFileException(file.toString());
+                }
+                request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                transfer(channel, start, end - start + 1, Channels.newChannel(response.getOutputStream()));
+            }
+            return;
+        }
+
+        // every part carries its own headers; the length is known up front so no chunking is needed
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (long[] part : ranges) {
+            byte[] header = ("\r\n--" + boundary + "\r\nContent-Type: " + contentType + "\r\nContent-Range: bytes "
+                    + part[0] + "-" + part[1] + "/" + length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            contentLength += header.length + part[1] - part[0] + 1;
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (head) {
+            return;
+        }
+        var out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = 0; i < ranges.size(); i++) {
+                out.write(partHeaders.get(i));
+                transfer(channel, ranges.get(i)[0], ranges.get(i)[1] - ranges.get(i)[0] + 1, target);
+            }
+        }
+        out.write(closing);
+    }
+
+    // a missing If-Range always matches; a weak or stale validator turns the request into a plain 200
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // null when the header should be ignored (unknown unit or bad syntax), empty when nothing can be served
+    private static List<long[]> satisfiable(String header, long length) {
+        List<HttpRange> requested;
+        try {
+            requested = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        List<long[]> ranges = new ArrayList<>(requested.size());
+        long total = 0;
+        for (HttpRange range : requested) {
+            // a range starting past the end, or a zero-length suffix, comes back with end before start
+            long start = range.getRangeStart(length);
+            long end = range.getRangeEnd(length);
+            if (start > end) {
+                continue;
+            }
+            ranges.add(new long[]{start, end});
+            total += end - start + 1;
+        }
+        // overlapping ranges that add up to more than the file are refused rather than amplified
+        return total > length ? List.of() : ranges;
+    }
+
+    private static void transfer(FileChannel channel, long position, long count, WritableByteChannel target)
+            throws IOException {
+        while (count > 0) {
+            long sent = channel.transferTo(position, count, target);
+            if (sent <= 0) {
+                throw new EOFException("File shrank while it was being sent");
+            }
+            position += sent;
+            count -= sent;
+        }
+    }
+}
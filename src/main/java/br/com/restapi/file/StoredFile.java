@@ -0,0 +1,5 @@
+package br.com.restapi.file;
+
+// what ended up in the storage directory for one upload; checksum is the SHA-256 of the content
+public record StoredFile(String name, long size, String checksum) {
+}
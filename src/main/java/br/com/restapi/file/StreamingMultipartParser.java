@@ -0,0 +1,60 @@
+package br.com.restapi.file;
+
+import br.com.restapi.exception.FileStorageException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.commons.fileupload2.core.FileItemInput;
+import org.apache.commons.fileupload2.core.FileItemInputIterator;
+import org.apache.commons.fileupload2.core.FileUploadSizeException;
+import org.apache.commons.fileupload2.jakarta.servlet6.JakartaServletFileUpload;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// Reads a multipart request as it comes off the wire, handing file parts over as streams instead of
+// spooled files. The spring.servlet.multipart size limits are checked while reading, so an oversized
+// upload fails as soon as it crosses the limit.
+@Component
+public class StreamingMultipartParser {
+
+    private final long maxFileSize;
+
+    private final long maxRequestSize;
+
+    public StreamingMultipartParser(MultipartProperties properties) {
+        this.maxFileSize = properties.getMaxFileSize().toBytes();
+        this.maxRequestSize = properties.getMaxRequestSize().toBytes();
+    }
+
+    @FunctionalInterface
+    public interface PartHandler<T> {
+        T handle(String fileName, String contentType, InputStream content) throws IOException;
+    }
+
+    // the result for the first file sent as the given field, or null when there is none
+    public <T> T readFile(HttpServletRequest request, String field, PartHandler<T> handler) {
+        var upload = new JakartaServletFileUpload<>();
+        upload.setFileSizeMax(maxFileSize);
+        upload.setSizeMax(maxRequestSize);
+        try {
+            FileItemInputIterator parts = upload.getItemIterator(request);
+            while (parts.hasNext()) {
+                FileItemInput part = parts.next();
+                if (part.isFormField() || !field.equals(part.getFieldName()) || !StringUtils.hasText(part.getName())) {
+                    continue;
+                }
+                try (InputStream content = part.getInputStream()) {
+                    return handler.handle(part.getName(), part.getContentType(), content);
+                }
+            }
+            return null;
+        } catch (FileUploadSizeException e) {
+            throw new MaxUploadSizeExceededException(e.getPermitted(), e);
+        } catch (IOException e) {
+            throw new FileStorageException("Couldn't read the uploaded file. Please try again!", e);
+        }
+    }
+}
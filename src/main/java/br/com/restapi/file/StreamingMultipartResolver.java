@@ -0,0 +1,23 @@
+package br.com.restapi.file;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+
+import java.util.Set;
+
+// Leaves the given paths' multipart bodies unread, so their controllers can stream them with
+// StreamingMultipartParser instead of getting parts the container has already spooled to disk.
+public class StreamingMultipartResolver extends StandardServletMultipartResolver {
+
+    private final Set<String> streamingPaths;
+
+    public StreamingMultipartResolver(String... streamingPaths) {
+        this.streamingPaths = Set.of(streamingPaths);
+    }
+
+    @Override
+    public boolean isMultipart(HttpServletRequest request) {
+        return super.isMultipart(request)
+                && !streamingPaths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+}
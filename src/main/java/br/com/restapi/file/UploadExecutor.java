@@ -0,0 +1,61 @@
+package br.com.restapi.file;
+
+import br.com.restapi.config.FileStorageConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+// Disk writes for multi-file uploads. upload-threads caps the writes in flight across all requests,
+// upload-parallelism how many of them one request may hold, so a large batch can't starve the others.
+@Component
+public class UploadExecutor {
+
+    private final ThreadPoolExecutor executor;
+
+    private final int parallelism;
+
+    public UploadExecutor(FileStorageConfig fileStorageConfig, MeterRegistry meterRegistry) {
+        // the queue can't grow past parallelism tasks per waiting request, so it needs no bound of its own
+        this.executor = new ThreadPoolExecutor(fileStorageConfig.getUploadThreads(), fileStorageConfig.getUploadThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("file-upload-"));
+        this.parallelism = Math.max(1, fileStorageConfig.getUploadParallelism());
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "file-upload");
+    }
+
+    // One future per item, in item order. The calling thread blocks while this request already has
+    // parallelism tasks running, and each future completes exceptionally on its own if its task fails.
+    public <T, R> List<CompletableFuture<R>> submitAll(List<T> items, Function<T, R> task) {
+        Semaphore permits = new Semaphore(parallelism);
+        List<CompletableFuture<R>> futures = new ArrayList<>(items.size());
+        for (T item : items) {
+            permits.acquireUninterruptibly();
+            try {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return task.apply(item);
+                    } finally {
+                        permits.release();
+                    }
+                }, executor));
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                futures.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        return futures;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
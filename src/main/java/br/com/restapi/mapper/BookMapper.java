@@ -0,0 +1,70 @@
+package br.com.restapi.mapper;
+
+import br.com.restapi.model.Book;
+import br.com.restapi.vo.v1.BookVO;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+public class BookMapper {
+
+    private BookMapper() {
+    }
+
+    public static BookVO toVO(Book entity) {
+        if (entity == null) return null;
+        BookVO vo = new BookVO();
+        vo.setKey(entity.getId());
+        vo.setAuthor(entity.getAuthor());
+        vo.setLaunchDate(copy(entity.getLaunchDate()));
+        vo.setPrice(entity.getPrice());
+        vo.setTitle(entity.getTitle());
+        vo.setVersion(entity.getVersion());
+        return vo;
+    }
+
+    public static BookVO copy(BookVO source) {
+        if (source == null) return null;
+        BookVO vo = new BookVO();
+        vo.setKey(source.getKey());
+        vo.setAuthor(source.getAuthor());
+        vo.setLaunchDate(copy(source.getLaunchDate()));
+        vo.setPrice(source.getPrice());
+        vo.setTitle(source.getTitle());
+        vo.setVersion(source.getVersion());
+        return vo;
+    }
+
+    public static Book toEntity(BookVO vo) {
+        if (vo == null) return null;
+        Book entity = new Book();
+        entity.setId(vo.getKey());
+        entity.setAuthor(vo.getAuthor());
+        entity.setLaunchDate(copy(vo.getLaunchDate()));
+        entity.setPrice(vo.getPrice());
+        entity.setTitle(vo.getTitle());
+        return entity;
+    }
+
+    public static List<BookVO> toVOList(List<Book> entities) {
+        List<BookVO> vos = new ArrayList<>(entities.size());
+        for (Book entity : entities) {
+            vos.add(toVO(entity));
+        }
+        return vos;
+    }
+
+    public static List<Book> toEntityList(List<BookVO> vos) {
+        List<Book> entities = new ArrayList<>(vos.size());
+        for (BookVO vo : vos) {
+            entities.add(toEntity(vo));
+        }
+        return entities;
+    }
+
+    // Hibernate hands out java.sql.Date for launch_date, the VO must expose a plain java.util.Date
+    private static Date copy(Date date) {
+        return date == null ? null : new Date(date.getTime());
+    }
+}
@@ -0,0 +1,67 @@
+package br.com.restapi.mapper;
+
+import br.com.restapi.model.Person;
+import br.com.restapi.vo.v1.PersonVO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PersonMapper {
+
+    private PersonMapper() {
+    }
+
+    public static PersonVO toVO(Person entity) {
+        if (entity == null) return null;
+        PersonVO vo = new PersonVO();
+        vo.setKey(entity.getId());
+        vo.setFirstName(entity.getFirstName());
+        vo.setLastName(entity.getLastName());
+        vo.setAddress(entity.getAddress());
+        vo.setGender(entity.getGender());
+        vo.setEnabled(entity.getEnabled());
+        vo.setVersion(entity.getVersion());
+        return vo;
+    }
+
+    public static PersonVO copy(PersonVO source) {
+        if (source == null) return null;
+        PersonVO vo = new PersonVO();
+        vo.setKey(source.getKey());
+        vo.setFirstName(source.getFirstName());
+        vo.setLastName(source.getLastName());
+        vo.setAddress(source.getAddress());
+        vo.setGender(source.getGender());
+        vo.setEnabled(source.getEnabled());
+        vo.setVersion(source.getVersion());
+        return vo;
+    }
+
+    public static Person toEntity(PersonVO vo) {
+        if (vo == null) return null;
+        Person entity = new Person();
+        entity.setId(vo.getKey());
+        entity.setFirstName(vo.getFirstName());
+        entity.setLastName(vo.getLastName());
+        entity.setAddress(vo.getAddress());
+        entity.setGender(vo.getGender());
+        entity.setEnabled(vo.getEnabled());
+        return entity;
+    }
+
+    public static List<PersonVO> toVOList(List<Person> entities) {
+        List<PersonVO> vos = new ArrayList<>(entities.size());
+        for (Person entity : entities) {
+            vos.add(toVO(entity));
+        }
+        return vos;
+    }
+
+    public static List<Person> toEntityList(List<PersonVO> vos) {
+        List<Person> entities = new ArrayList<>(vos.size());
+        for (PersonVO vo : vos) {
+            entities.add(toEntity(vo));
+        }
+        return entities;
+    }
+}
@@ -1,6 +1,10 @@
 package br.com.restapi.model;
 
+import br.com.restapi.etag.EtagListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -9,12 +13,18 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "book")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
+@EntityListeners(EtagListener.class)
 public class Book implements Serializable {
     @Serial
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "book_id")
+    @TableGenerator(name = "book_id", table = "id_generator", pkColumnName = "entity",
+            valueColumnName = "next_id", pkColumnValue = "book", allocationSize = 50)
     private Long id;
     @Column(nullable = false, length = 180)
     private String author;
@@ -29,6 +39,14 @@ public class Book implements Serializable {
     @Column(nullable = false, length = 250)
     private String title;
 
+    // computed by the database from title, see titleKey() in BookService; only keyset queries use it
+    @Column(name = "title_key", insertable = false, updatable = false)
+    private String titleKey;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public Book(){}
 
     public Long getId() {
@@ -71,6 +89,14 @@ public class Book implements Serializable {
         this.title = title;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
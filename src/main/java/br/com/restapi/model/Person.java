@@ -1,6 +1,11 @@
 package br.com.restapi.model;
 
+import br.com.restapi.etag.EtagListener;
+import br.com.restapi.search.PersonNameIndexListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -8,12 +13,18 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "person")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
+@EntityListeners({PersonNameIndexListener.class, EtagListener.class})
 public class Person implements Serializable {
     @Serial
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "person_id")
+    @TableGenerator(name = "person_id", table = "id_generator", pkColumnName = "entity",
+            valueColumnName = "next_id", pkColumnValue = "person", allocationSize = 50)
     private Long id;
     @Column(name = "first_name", nullable = false, length = 80)
     private String firstName;
@@ -25,6 +36,9 @@ public class Person implements Serializable {
     private String gender;
     @Column(nullable = false)
     private Boolean enabled;
+    @Version
+    @Column(nullable = false)
+    private Long version;
 
     public Person() {
     }
@@ -76,6 +90,14 @@ public class Person implements Serializable {
     public void setEnabled(Boolean enabled) {
         this.enabled = enabled;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,10 +1,26 @@
 package br.com.restapi.repository;
 
 import br.com.restapi.model.Book;
-import br.com.restapi.model.Person;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface BookRepository extends JpaRepository<Book,Long> {
+    @Query("SELECT b FROM Book b")
+    Slice<Book> findBooksSlice(Pageable pageable);
+
+    @Query("SELECT b FROM Book b")
+    List<Book> findFirstBooks(Pageable pageable);
+
+    @Query("SELECT b FROM Book b WHERE b.titleKey > :title OR (b.titleKey = :title AND b.id > :id)")
+    List<Book> findBooksAfter(@Param("title") String title, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT b FROM Book b WHERE b.titleKey < :title OR (b.titleKey = :title AND b.id < :id)")
+    List<Book> findBooksBefore(@Param("title") String title, @Param("id") Long id, Pageable pageable);
 }
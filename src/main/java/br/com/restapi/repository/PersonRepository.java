@@ -1,19 +1,63 @@
 package br.com.restapi.repository;
 
 import br.com.restapi.model.Person;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface PersonRepository extends JpaRepository<Person,Long> {
     @Modifying
-    @Query("UPDATE Person p SET p.enabled = false WHERE p.id =:id")
-    void disablePerson(@Param("id") Long id);
-    @Query("SELECT p FROM Person p WHERE p.firstName LIKE LOWER(CONCAT('%',:firstName,'%'))")
+    @Query("UPDATE VERSIONED Person p SET p.enabled = false WHERE p.id IN :ids")
+    int disablePersons(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Person p WHERE p.id IN :ids")
+    int deletePersons(@Param("ids") Collection<Long> ids);
+
+    // ids only, so bulk operations never load the entities themselves
+    @Query("SELECT p.id FROM Person p WHERE (:firstName IS NULL OR LOWER(p.firstName) LIKE LOWER(CONCAT('%',:firstName,'%')))"
+            + " AND (:gender IS NULL OR p.gender = :gender)")
+    List<Long> findIdsByFilter(@Param("firstName") String firstName, @Param("gender") String gender, Pageable limit);
+
+    @Query("SELECT p.id FROM Person p WHERE p.id IN :ids"
+            + " AND (:firstName IS NULL OR LOWER(p.firstName) LIKE LOWER(CONCAT('%',:firstName,'%')))"
+            + " AND (:gender IS NULL OR p.gender = :gender)")
+    List<Long> findIdsByFilterAmong(@Param("ids") Collection<Long> ids, @Param("firstName") String firstName,
+                                    @Param("gender") String gender);
+
+    @Query("SELECT p FROM Person p WHERE LOWER(p.firstName) LIKE LOWER(CONCAT('%',:firstName,'%'))")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Page<Person> findPersonsByName(Pageable pageable, @Param("firstName") String firstName);
+
+    @Query("SELECT p FROM Person p WHERE LOWER(p.firstName) LIKE LOWER(CONCAT('%',:firstName,'%'))")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    Slice<Person> findPersonsByNameSlice(Pageable pageable, @Param("firstName") String firstName);
+
+    @Query("SELECT COUNT(p) FROM Person p WHERE LOWER(p.firstName) LIKE LOWER(CONCAT('%',:firstName,'%'))")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    long countPersonsByName(@Param("firstName") String firstName);
+
+    @Query("SELECT p FROM Person p")
+    Slice<Person> findPersonsSlice(Pageable pageable);
+
+    @Query("SELECT p FROM Person p")
+    List<Person> findFirstPersons(Pageable pageable);
+
+    @Query("SELECT p FROM Person p WHERE p.firstName > :firstName OR (p.firstName = :firstName AND p.id > :id)")
+    List<Person> findPersonsAfter(@Param("firstName") String firstName, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT p FROM Person p WHERE p.firstName < :firstName OR (p.firstName = :firstName AND p.id < :id)")
+    List<Person> findPersonsBefore(@Param("firstName") String firstName, @Param("id") Long id, Pageable pageable);
 }
@@ -2,13 +2,22 @@ package br.com.restapi.repository;
 
 import br.com.restapi.model.Person;
 import br.com.restapi.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.userName =:userName")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     User findByUsername(@Param("userName") String userName);
+
+    @Modifying
+    @Query("UPDATE User u SET u.password =:password WHERE u.userName =:userName")
+    void updatePassword(@Param("userName") String userName, @Param("password") String password);
 }
@@ -0,0 +1,708 @@
+package br.com.restapi.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+import java.util.logging.Logger;
+
+// In-memory 1..3-gram index over person.first_name; substring search matches
+// LIKE '%x%' semantics but is case-insensitive on both sides.
+//
+// First names repeat a lot, so grams index the distinct lower-cased names ("slots") and each slot
+// holds the sorted ids of the people carrying it. Everything is kept in primitive arrays: a person
+// costs an id in its slot and an entry in the id -> slot table.
+@Component
+public class PersonNameIndex {
+
+    private static final int GRAM = 3;
+
+    // matches holding more than 1/N of all names are read in name order rather than ranked
+    private static final int BROAD_MATCH_RATIO = 64;
+
+    // rows a resync applies per write lock, so searches keep running during a pass
+    private static final int RESYNC_BATCH = 1000;
+
+    private final Logger logger = Logger.getLogger(PersonNameIndex.class.getName());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Grams grams = new Grams();
+
+    // writes seen while a rebuild is loading, replayed onto the new grams before the swap
+    private List<Change> journal;
+
+    // people written here while a resync is reading, which it leaves alone as what it read is older
+    private Set<Long> touched;
+
+    private volatile boolean ready;
+
+    public PersonNameIndex(JdbcTemplate jdbcTemplate,
+                           @Value("${search.person-name-index.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // loaded once; from then on the entity listener keeps it in sync with this instance's writes
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    // Writes from other instances, or SQL run outside the app, never reach the listener. A pass
+    // reads every (id, first_name) again and fixes just the people that differ, in place, instead
+    // of loading a second index next to this one.
+    @Scheduled(fixedDelayString = "${search.person-name-index.refresh-interval:PT10M}",
+            initialDelayString = "${search.person-name-index.refresh-interval:PT10M}")
+    public void resync() {
+        if (!enabled || !ready) {
+            return;
+        }
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            touched = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        int[] differed = {0};
+        try {
+            var scanned = new LongArray();
+            List<Change> batch = new ArrayList<>(RESYNC_BATCH);
+            jdbcTemplate.query(con -> {
+                var statement = con.prepareStatement("SELECT id, first_name FROM person ORDER BY id");
+                statement.setFetchSize(1000);
+                return statement;
+            }, rs -> {
+                long id = rs.getLong("id");
+                scanned.append(id);
+                batch.add(new Change(id, rs.getString("first_name")));
+                if (batch.size() == RESYNC_BATCH) {
+                    differed[0] += applyScanned(batch);
+                    batch.clear();
+                }
+            });
+            differed[0] += applyScanned(batch);
+
+            // people no longer in the table
+            List<Change> gone = new ArrayList<>();
+            lock.readLock().lock();
+            try {
+                grams.slotById.forEachId(id -> {
+                    if (!scanned.contains(id)) {
+                        gone.add(new Change(id, null));
+                    }
+                });
+            } finally {
+                lock.readLock().unlock();
+            }
+            differed[0] += applyScanned(gone);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                touched = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        logger.info("Resynced person name index, " + differed[0] + " people differed, in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    public void rebuild() {
+        logger.info("Rebuilding person name index");
+        long start = System.nanoTime();
+
+        lock.writeLock().lock();
+        try {
+            journal = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        var fresh = new Grams();
+        try {
+            jdbcTemplate.query(con -> {
+                var statement = con.prepareStatement("SELECT id, first_name FROM person");
+                statement.setFetchSize(1000);
+                return statement;
+            }, rs -> {
+                String firstName = rs.getString("first_name");
+                if (firstName != null) {
+                    fresh.put(rs.getLong("id"), firstName);
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                journal = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Change change : journal) {
+                change.applyTo(fresh);
+            }
+            fresh.rank();
+            journal = null;
+            grams = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Indexed " + fresh.people + " people under " + fresh.slots.size() + " names in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    public void put(long id, String firstName) {
+        apply(new Change(id, firstName));
+    }
+
+    public void remove(long id) {
+        apply(new Change(id, null));
+    }
+
+    public Page<Long> search(String query, Pageable pageable) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        var order = pageable.getSort().getOrderFor("firstName");
+        boolean descending = order != null && order.getDirection() == Sort.Direction.DESC;
+        long offset = pageable.getOffset();
+        int size = pageable.getPageSize();
+
+        lock.readLock().lock();
+        try {
+            if (!grams.ranked) {
+                // new names arrived since the last search: put the slots back in name order, then
+                // downgrade to the read lock (a read lock can't be upgraded in place)
+                lock.readLock().unlock();
+                lock.writeLock().lock();
+                try {
+                    lock.readLock().lock();
+                    if (!grams.ranked) {
+                        grams.rank();
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+
+            IntArray matches = grams.match(needle);
+            var page = new PageCollector(offset, size, descending);
+            int names = grams.byRank.length;
+            if (matches.size > names / BROAD_MATCH_RATIO) {
+                // broad match: walk names in order and stop once the page is full
+                for (int i = 0; i < names && !page.isFull(); i++) {
+                    int slot = grams.byRank[descending ? names - 1 - i : i];
+                    if (matches.contains(slot)) {
+                        page.add(grams.members.get(slot));
+                    }
+                }
+            } else {
+                // narrow match: put just the matching names in order
+                int[] ranks = new int[matches.size];
+                for (int i = 0; i < matches.size; i++) {
+                    ranks[i] = grams.rank[matches.values[i]];
+                }
+                Arrays.sort(ranks);
+                for (int i = 0; i < ranks.length && !page.isFull(); i++) {
+                    page.add(grams.members.get(grams.byRank[ranks[descending ? ranks.length - 1 - i : i]]));
+                }
+            }
+            return new PageImpl<>(page.ids, pageable, grams.count(needle, matches));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Change change) {
+        // a disabled index is never searched, so entity listener writes must not grow it
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            change.applyTo(grams);
+            if (journal != null) {
+                journal.add(change);
+            }
+            if (touched != null) {
+                touched.add(change.id());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // what a resync read, minus people written here since it started; returns how many differed
+    private int applyScanned(List<Change> changes) {
+        int differed = 0;
+        lock.writeLock().lock();
+        try {
+            for (Change change : changes) {
+                if (!touched.contains(change.id()) && !grams.holds(change.id(), change.firstName())) {
+                    change.applyTo(grams);
+                    differed++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return differed;
+    }
+
+    // ids of one page, fed one name (its people in id order) at a time
+    private static class PageCollector {
+
+        private final List<Long> ids;
+
+        private final int size;
+
+        private final boolean descending;
+
+        private long skip;
+
+        PageCollector(long offset, int size, boolean descending) {
+            this.ids = new ArrayList<>(size);
+            this.size = size;
+            this.descending = descending;
+            this.skip = offset;
+        }
+
+        boolean isFull() {
+            return ids.size() == size;
+        }
+
+        // a name wholly before the page is skipped by its size, without walking its ids
+        void add(LongArray members) {
+            if (skip >= members.size) {
+                skip -= members.size;
+                return;
+            }
+            for (int i = (int) skip; i < members.size && !isFull(); i++) {
+                ids.add(members.values[descending ? members.size - 1 - i : i]);
+            }
+            skip = 0;
+        }
+    }
+
+    private record Change(long id, String firstName) {
+
+        void applyTo(Grams grams) {
+            if (firstName == null) {
+                grams.remove(id);
+            } else {
+                grams.put(id, firstName);
+            }
+        }
+    }
+
+    private static class Grams {
+
+        // distinct lower-cased names by slot, and the people carrying each one; freed slots are reused
+        private final List<String> names = new ArrayList<>();
+
+        private final List<LongArray> members = new ArrayList<>();
+
+        private final Map<String, Integer> slots = new HashMap<>();
+
+        private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+        // gram -> sorted slots whose name contains it, and each slot's postings for quick updates
+        private final Map<String, Posting> postings = new HashMap<>();
+
+        private final List<Posting[]> postingsBySlot = new ArrayList<>();
+
+        private final IdTable slotById = new IdTable();
+
+        private long people;
+
+        // rank -> slot and slot -> rank in name order, redone lazily after a new name gets a slot
+        private int[] byRank = new int[0];
+
+        private int[] rank = new int[0];
+
+        private boolean ranked = true;
+
+        void put(long id, String firstName) {
+            String key = firstName.toLowerCase(Locale.ROOT);
+            int previous = slotById.get(id);
+            if (previous >= 0 && key.equals(names.get(previous))) {
+                return;
+            }
+            remove(id);
+            Integer slot = slots.get(key);
+            if (slot == null) {
+                slot = newSlot(key);
+            }
+            members.get(slot).add(id);
+            for (Posting posting : postingsBySlot.get(slot)) {
+                posting.people++;
+            }
+            slotById.put(id, slot);
+            people++;
+        }
+
+        void remove(long id) {
+            int slot = slotById.remove(id);
+            if (slot < 0) {
+                return;
+            }
+            people--;
+            LongArray slotMembers = members.get(slot);
+            slotMembers.remove(id);
+            for (Posting posting : postingsBySlot.get(slot)) {
+                posting.people--;
+                if (slotMembers.size == 0) {
+                    posting.remove(slot);
+                    if (posting.size == 0) {
+                        postings.remove(posting.gram);
+                    }
+                }
+            }
+            if (slotMembers.size == 0) {
+                slots.remove(names.get(slot));
+                names.set(slot, null);
+                members.set(slot, null);
+                postingsBySlot.set(slot, null);
+                freeSlots.push(slot);
+            }
+        }
+
+        // whether the person is indexed under this name; a null name means not indexed at all
+        boolean holds(long id, String firstName) {
+            int slot = slotById.get(id);
+            return firstName == null ? slot < 0
+                    : slot >= 0 && names.get(slot).equals(firstName.toLowerCase(Locale.ROOT));
+        }
+
+        // people whose name contains the needle; a gram's posting keeps that count itself
+        long count(String needle, IntArray matches) {
+            if (needle.length() <= GRAM) {
+                Posting posting = postings.get(needle);
+                return posting != null ? posting.people : 0;
+            }
+            long total = 0;
+            for (int i = 0; i < matches.size; i++) {
+                total += members.get(matches.values[i]).size;
+            }
+            return total;
+        }
+
+        // slots whose name contains the needle: a 1..3 char needle is a gram itself, a longer one
+        // is narrowed by all of its trigrams and then checked, as they may sit apart in the name
+        IntArray match(String needle) {
+            if (needle.length() <= GRAM) {
+                IntArray posting = postings.get(needle);
+                return posting != null ? posting : new IntArray();
+            }
+            List<IntArray> lists = new ArrayList<>();
+            for (String gram : trigrams(needle)) {
+                IntArray posting = postings.get(gram);
+                if (posting == null) {
+                    return new IntArray();
+                }
+                lists.add(posting);
+            }
+            lists.sort(Comparator.comparingInt(posting -> posting.size));
+            IntArray smallest = lists.get(0);
+            IntArray result = new IntArray();
+            candidates:
+            for (int i = 0; i < smallest.size; i++) {
+                int slot = smallest.values[i];
+                for (int j = 1; j < lists.size(); j++) {
+                    if (!lists.get(j).contains(slot)) {
+                        continue candidates;
+                    }
+                }
+                if (names.get(slot).contains(needle)) {
+                    result.append(slot);
+                }
+            }
+            return result;
+        }
+
+        void rank() {
+            byRank = new int[slots.size()];
+            int next = 0;
+            for (int slot = 0; slot < names.size(); slot++) {
+                if (names.get(slot) != null) {
+                    byRank[next++] = slot;
+                }
+            }
+            byRank = Arrays.stream(byRank).boxed()
+                    .sorted(Comparator.comparing(names::get))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            rank = new int[names.size()];
+            for (int i = 0; i < byRank.length; i++) {
+                rank[byRank[i]] = i;
+            }
+            ranked = true;
+        }
+
+        private int newSlot(String key) {
+            int slot;
+            Set<String> keyGrams = grams(key);
+            Posting[] slotPostings = new Posting[keyGrams.size()];
+            if (freeSlots.isEmpty()) {
+                slot = names.size();
+                names.add(key);
+                members.add(new LongArray());
+                postingsBySlot.add(slotPostings);
+            } else {
+                slot = freeSlots.pop();
+                names.set(slot, key);
+                members.set(slot, new LongArray());
+                postingsBySlot.set(slot, slotPostings);
+            }
+            slots.put(key, slot);
+            int next = 0;
+            for (String gram : keyGrams) {
+                Posting posting = postings.computeIfAbsent(gram, Posting::new);
+                posting.add(slot);
+                slotPostings[next++] = posting;
+            }
+            ranked = false;
+            return slot;
+        }
+
+        private static Set<String> grams(String key) {
+            Set<String> result = new HashSet<>();
+            for (int n = 1; n <= GRAM; n++) {
+                for (int i = 0; i + n <= key.length(); i++) {
+                    result.add(key.substring(i, i + n));
+                }
+            }
+            return result;
+        }
+
+        private static Set<String> trigrams(String needle) {
+            Set<String> result = new HashSet<>();
+            for (int i = 0; i + GRAM <= needle.length(); i++) {
+                result.add(needle.substring(i, i + GRAM));
+            }
+            return result;
+        }
+    }
+
+    // sorted, growable int[]
+    private static class IntArray {
+
+        int[] values = new int[4];
+
+        int size;
+
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        void add(int value) {
+            int at = Arrays.binarySearch(values, 0, size, value);
+            if (at < 0) {
+                insert(-at - 1, value);
+            }
+        }
+
+        // caller guarantees value is larger than everything held
+        void append(int value) {
+            insert(size, value);
+        }
+
+        void remove(int value) {
+            int at = Arrays.binarySearch(values, 0, size, value);
+            if (at >= 0) {
+                System.arraycopy(values, at + 1, values, at, size - at - 1);
+                size--;
+            }
+        }
+
+        private void insert(int at, int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, at, values, at + 1, size - at);
+            values[at] = value;
+            size++;
+        }
+    }
+
+    private static class Posting extends IntArray {
+
+        private final String gram;
+
+        // people across all of the posting's slots
+        private long people;
+
+        Posting(String gram) {
+            this.gram = gram;
+        }
+    }
+
+    // sorted, growable long[]
+    private static class LongArray {
+
+        long[] values = new long[2];
+
+        int size;
+
+        boolean contains(long value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        // caller guarantees value is larger than everything held
+        void append(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void add(long value) {
+            int at = Arrays.binarySearch(values, 0, size, value);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, at, values, at + 1, size - at);
+            values[at] = value;
+            size++;
+        }
+
+        void remove(long value) {
+            int at = Arrays.binarySearch(values, 0, size, value);
+            if (at >= 0) {
+                System.arraycopy(values, at + 1, values, at, size - at - 1);
+                size--;
+            }
+        }
+    }
+
+    // open-addressing id -> slot table; a boxed map would cost several times more per person
+    private static class IdTable {
+
+        // slot + 1, so 0 marks a free cell
+        private int[] slots = new int[16];
+
+        private long[] ids = new long[16];
+
+        private int size;
+
+        int get(long id) {
+            for (int i = home(id); slots[i] != 0; i = next(i)) {
+                if (ids[i] == id) {
+                    return slots[i] - 1;
+                }
+            }
+            return -1;
+        }
+
+        void put(long id, int slot) {
+            if ((size + 1) * 2 > slots.length) {
+                grow();
+            }
+            int i = home(id);
+            while (slots[i] != 0 && ids[i] != id) {
+                i = next(i);
+            }
+            if (slots[i] == 0) {
+                size++;
+            }
+            ids[i] = id;
+            slots[i] = slot + 1;
+        }
+
+        int remove(long id) {
+            int i = home(id);
+            while (slots[i] != 0 && ids[i] != id) {
+                i = next(i);
+            }
+            if (slots[i] == 0) {
+                return -1;
+            }
+            int slot = slots[i] - 1;
+            slots[i] = 0;
+            size--;
+            // shift later cells of the probe run back so lookups don't stop at the hole
+            for (int j = next(i); slots[j] != 0; j = next(j)) {
+                int home = home(ids[j]);
+                boolean reachable = i <= j ? home > i && home <= j : home > i || home <= j;
+                if (!reachable) {
+                    ids[i] = ids[j];
+                    slots[i] = slots[j];
+                    slots[j] = 0;
+                    i = j;
+                }
+            }
+            return slot;
+        }
+
+        void forEachId(LongConsumer action) {
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] != 0) {
+                    action.accept(ids[i]);
+                }
+            }
+        }
+
+        private void grow() {
+            long[] oldIds = ids;
+            int[] oldSlots = slots;
+            ids = new long[oldIds.length * 2];
+            slots = new int[oldSlots.length * 2];
+            size = 0;
+            for (int i = 0; i < oldSlots.length; i++) {
+                if (oldSlots[i] != 0) {
+                    put(oldIds[i], oldSlots[i] - 1);
+                }
+            }
+        }
+
+        private int home(long id) {
+            long hash = id * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & (slots.length - 1);
+        }
+
+        private int next(int i) {
+            return (i + 1) & (slots.length - 1);
+        }
+    }
+}
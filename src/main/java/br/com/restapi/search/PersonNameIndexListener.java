@@ -0,0 +1,34 @@
+package br.com.restapi.search;
+
+import br.com.restapi.model.Person;
+import br.com.restapi.util.AfterCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PersonNameIndexListener {
+
+    // absent in JPA-only slices such as @DataJpaTest
+    private final ObjectProvider<PersonNameIndex> index;
+
+    public PersonNameIndexListener(ObjectProvider<PersonNameIndex> index) {
+        this.index = index;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onPersonSaved(Person person) {
+        Long id = person.getId();
+        String firstName = person.getFirstName();
+        index.ifAvailable(nameIndex -> AfterCommit.run(() -> nameIndex.put(id, firstName)));
+    }
+
+    @PostRemove
+    public void onPersonRemoved(Person person) {
+        Long id = person.getId();
+        index.ifAvailable(nameIndex -> AfterCommit.run(() -> nameIndex.remove(id)));
+    }
+}
@@ -0,0 +1,73 @@
+package br.com.restapi.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+@ConditionalOnProperty(name = "security.jwt.refresh-store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRefreshTokenStore implements RefreshTokenStore {
+
+    private record Entry(RefreshToken token, AtomicBoolean used) {
+    }
+
+    private final Cache<String, Entry> tokens;
+
+    private final Cache<String, Boolean> revokedFamilies;
+
+    public InMemoryRefreshTokenStore(@Value("${security.jwt.refresh-store-max-size:1000000}") long maxSize,
+                                     @Value("${security.jwt.token.expire-length:3600000}") long validityInMilliseconds) {
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String jti, Entry entry, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), entry.token().expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String jti, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String jti, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.revokedFamilies = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(validityInMilliseconds * 3))
+                .build();
+    }
+
+    @Override
+    public void save(RefreshToken token) {
+        tokens.put(token.jti(), new Entry(token, new AtomicBoolean()));
+    }
+
+    @Override
+    public RefreshToken consume(String jti) {
+        Entry entry = tokens.getIfPresent(jti);
+        if (entry == null || revokedFamilies.getIfPresent(entry.token().familyId()) != null) {
+            return null;
+        }
+        if (!entry.used().compareAndSet(false, true)) {
+            revokeFamily(entry.token().familyId());
+            return null;
+        }
+        return entry.token();
+    }
+
+    @Override
+    public void revokeFamily(String familyId) {
+        revokedFamilies.put(familyId, Boolean.TRUE);
+    }
+}
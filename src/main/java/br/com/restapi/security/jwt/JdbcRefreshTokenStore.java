@@ -0,0 +1,67 @@
+package br.com.restapi.security.jwt;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "security.jwt.refresh-store", havingValue = "jdbc")
+public class JdbcRefreshTokenStore implements RefreshTokenStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcRefreshTokenStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void save(RefreshToken token) {
+        jdbcTemplate.update("INSERT INTO refresh_token (jti, family_id, user_name, roles, expires_at, used, revoked) "
+                        + "VALUES (?, ?, ?, ?, ?, FALSE, FALSE)",
+                token.jti(), token.familyId(), token.subject(), String.join(",", token.roles()),
+                Timestamp.from(token.expiresAt()));
+    }
+
+    @Override
+    public RefreshToken consume(String jti) {
+        int updated = jdbcTemplate.update("UPDATE refresh_token SET used = TRUE "
+                + "WHERE jti = ? AND used = FALSE AND revoked = FALSE AND expires_at > ?",
+                jti, Timestamp.from(Instant.now()));
+        List<RefreshToken> tokens = jdbcTemplate.query(
+                "SELECT jti, family_id, user_name, roles, expires_at FROM refresh_token WHERE jti = ?",
+                (rs, rowNum) -> new RefreshToken(rs.getString("jti"),
+                        rs.getString("family_id"),
+                        rs.getString("user_name"),
+                        parseRoles(rs.getString("roles")),
+                        rs.getTimestamp("expires_at").toInstant()),
+                jti);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        if (updated == 0) {
+            revokeFamily(tokens.get(0).familyId());
+            return null;
+        }
+        return tokens.get(0);
+    }
+
+    @Override
+    public void revokeFamily(String familyId) {
+        jdbcTemplate.update("UPDATE refresh_token SET revoked = TRUE WHERE family_id = ?", familyId);
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.refresh-store-purge-interval:PT10M}")
+    public void purgeExpired() {
+        jdbcTemplate.update("DELETE FROM refresh_token WHERE expires_at < ?", Timestamp.from(Instant.now()));
+    }
+
+    private static List<String> parseRoles(String roles) {
+        return roles == null || roles.isEmpty() ? List.of() : Arrays.asList(roles.split(","));
+    }
+}
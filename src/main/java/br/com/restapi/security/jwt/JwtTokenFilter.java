@@ -1,5 +1,6 @@
 package br.com.restapi.security.jwt;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
@@ -25,8 +26,9 @@ public class JwtTokenFilter extends GenericFilterBean {
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
         String token = tokenProvider.resolveToken((HttpServletRequest) request);
-        if (token != null && tokenProvider.validateToken(token)) {
-            Authentication auth = tokenProvider.getAuthentication(token);
+        if (token != null) {
+            DecodedJWT decodedJWT = tokenProvider.verifyToken(token);
+            Authentication auth = tokenProvider.getAuthentication(decodedJWT);
             if (auth != null) {
                 SecurityContextHolder.getContext().setAuthentication(auth);
             }
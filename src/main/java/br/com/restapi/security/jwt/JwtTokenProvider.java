@@ -5,6 +5,7 @@ import br.com.restapi.vo.v1.TokenVO;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,6 +13,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
@@ -20,6 +23,7 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import java.util.Base64;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 
 
 @Service
@@ -30,43 +34,69 @@ public class JwtTokenProvider {
     @Value("${security.jwt.token.expire-length:3600000}")
     private long validityInMilliseconds = 3600000;
 
+    @Value("${security.jwt.token.trusted-claims:false}")
+    private boolean trustedClaims = false;
+
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    @Autowired
+    private RefreshTokenStore refreshTokenStore;
+
     Algorithm algorithm = null;
 
+    JWTVerifier verifier = null;
+
     @PostConstruct
     protected void init() {
         secretKey = Base64.getEncoder().encodeToString(secretKey.getBytes());
         algorithm = Algorithm.HMAC256(secretKey.getBytes());
+        verifier = JWT.require(algorithm).build();
     }
 
     public TokenVO createAccessToken(String userName, List<String> roles) {
+        return createAccessToken(userName, roles, UUID.randomUUID().toString());
+    }
+
+    private TokenVO createAccessToken(String userName, List<String> roles, String familyId) {
         Date now = new Date();
         Date validity = new Date(now.getTime() + validityInMilliseconds);
         var accessToken = getAccessToken(userName, roles, now, validity);
-        var refreshToken = getRefreshToken(userName, roles, now);
+        var refreshToken = getRefreshToken(userName, roles, now, familyId);
         return new TokenVO(userName, true, now, validity, accessToken, refreshToken);
     }
 
-    public TokenVO refreshToken(String refreshToken) {
+    public TokenVO refreshToken(String userName, String refreshToken) {
         if(refreshToken.contains("Bearer")) {
             refreshToken = refreshToken.substring("Bearer ".length());
         }
-            JWTVerifier verifier = JWT.require(algorithm).build();
-            DecodedJWT decodedJWT = verifier.verify(refreshToken);
-            String username = decodedJWT.getSubject();
-            List<String> roles = decodedJWT.getClaim("roles").asList(String.class);
-            return createAccessToken(username,roles);
+        DecodedJWT decodedJWT = verifyToken(refreshToken);
+        if (decodedJWT.getId() == null || !decodedJWT.getSubject().equals(userName)) {
+            throw new InvalidJwtAuthenticationException("Invalid refresh token");
+        }
+        RefreshToken stored = refreshTokenStore.consume(decodedJWT.getId());
+        if (stored == null) {
+            throw new InvalidJwtAuthenticationException("Invalid or reused refresh token");
+        }
+        return createAccessToken(stored.subject(), stored.roles(), stored.familyId());
     }
 
-    private String getRefreshToken(String userName, List<String> roles, Date now) {
+    private String getRefreshToken(String userName, List<String> roles, Date now, String familyId) {
         Date validityRefreshToken = new Date(now.getTime() + (validityInMilliseconds * 3));
+        String jti = UUID.randomUUID().toString();
+        refreshTokenStore.save(new RefreshToken(jti, familyId, userName, roles, validityRefreshToken.toInstant()));
         return JWT.create()
                 .withClaim("roles", roles)
                 .withIssuedAt(now)
                 .withExpiresAt(validityRefreshToken)
                 .withSubject(userName)
+                .withJWTId(jti)
                 .sign(algorithm)
                 .strip();
     }
@@ -84,17 +114,25 @@ public class JwtTokenProvider {
     }
 
     public Authentication getAuthentication(String token) {
-        DecodedJWT decodedJWT = decodedToken(token);
-        UserDetails userDetails = this.userDetailsService
-                .loadUserByUsername(decodedJWT.getSubject());
+        return getAuthentication(verifyToken(token));
+    }
+
+    public Authentication getAuthentication(DecodedJWT decodedJWT) {
+        if (trustedClaims) {
+            return getAuthenticationFromClaims(decodedJWT);
+        }
+        long issuedAt = decodedJWT.getIssuedAt() != null ? decodedJWT.getIssuedAt().getTime() : 0L;
+        UserDetails userDetails = principalCache.get(decodedJWT.getSubject(), issuedAt,
+                this.userDetailsService::loadUserByUsername);
         return new UsernamePasswordAuthenticationToken(userDetails, "", userDetails.getAuthorities());
     }
 
-    private DecodedJWT decodedToken(String token) {
-        var alg = Algorithm.HMAC256(secretKey.getBytes());
-        JWTVerifier verifier = JWT.require(alg).build();
-        DecodedJWT decodedJWT = verifier.verify(token);
-        return decodedJWT;
+    private Authentication getAuthenticationFromClaims(DecodedJWT decodedJWT) {
+        List<String> roles = decodedJWT.getClaim("roles").asList(String.class);
+        List<SimpleGrantedAuthority> authorities = roles == null ? List.of()
+                : roles.stream().map(SimpleGrantedAuthority::new).toList();
+        UserDetails userDetails = new User(decodedJWT.getSubject(), "", authorities);
+        return new UsernamePasswordAuthenticationToken(userDetails, "", authorities);
     }
 
     public String resolveToken(HttpServletRequest req) {
@@ -106,14 +144,20 @@ public class JwtTokenProvider {
     }
 
     public boolean validateToken(String token) {
-        DecodedJWT decodedJWT = decodedToken(token);
+        verifyToken(token);
+        return true;
+    }
+
+    public DecodedJWT verifyToken(String token) {
+        DecodedJWT decodedJWT;
         try {
-            if(decodedJWT.getExpiresAt().before(new Date())){
-                return false;
-            }
-            return true;
-        } catch (Exception e) {
+            decodedJWT = verifier.verify(token);
+        } catch (JWTVerificationException e) {
             throw new InvalidJwtAuthenticationException("Expired or invalid JWT token");
         }
+        if (revocationList.isRevoked(decodedJWT.getSubject(), decodedJWT.getIssuedAt())) {
+            throw new InvalidJwtAuthenticationException("Revoked JWT token");
+        }
+        return decodedJWT;
     }
 }
@@ -0,0 +1,46 @@
+package br.com.restapi.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+@Component
+public class PrincipalCache {
+
+    // subject -> issued-at -> principal, so a subject is evicted with a single invalidate. A load that
+    // was already running when its subject got evicted lands in the detached map and is never served.
+    private final Cache<String, Map<Long, UserDetails>> cache;
+
+    public PrincipalCache(@Value("${security.jwt.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${security.jwt.principal-cache.ttl:60s}") Duration ttl,
+                          MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.principals");
+    }
+
+    public UserDetails get(String subject, long issuedAt, Function<String, UserDetails> loader) {
+        return cache.get(subject, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(issuedAt, key -> loader.apply(subject));
+    }
+
+    public void evict(String subject) {
+        cache.invalidate(subject);
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,7 @@
+package br.com.restapi.security.jwt;
+
+import java.time.Instant;
+import java.util.List;
+
+public record RefreshToken(String jti, String familyId, String subject, List<String> roles, Instant expiresAt) {
+}
@@ -0,0 +1,14 @@
+package br.com.restapi.security.jwt;
+
+public interface RefreshTokenStore {
+
+    void save(RefreshToken token);
+
+    /**
+     * Marks the token as used and returns it. Returns null when the token is unknown, expired or its
+     * family was revoked. Presenting an already used token revokes the whole family.
+     */
+    RefreshToken consume(String jti);
+
+    void revokeFamily(String familyId);
+}
@@ -0,0 +1,36 @@
+package br.com.restapi.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+
+@Component
+public class TokenRevocationList {
+
+    private final Cache<String, Long> revokedAt;
+
+    public TokenRevocationList(@Value("${security.jwt.token.expire-length:3600000}") long validityInMilliseconds) {
+        // Refresh tokens live three times longer than access tokens, nothing older needs to be remembered
+        this.revokedAt = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(validityInMilliseconds * 3))
+                .build();
+    }
+
+    // JWT iat has second precision, so the revoke time is truncated to match. Tokens issued within
+    // the revoking second stay valid rather than rejecting a login made right after the change.
+    public void revoke(String subject) {
+        revokedAt.put(subject, System.currentTimeMillis() / 1000 * 1000);
+    }
+
+    public boolean isRevoked(String subject, Date issuedAt) {
+        Long revoked = revokedAt.getIfPresent(subject);
+        if (revoked == null) {
+            return false;
+        }
+        return issuedAt == null || issuedAt.getTime() < revoked;
+    }
+}
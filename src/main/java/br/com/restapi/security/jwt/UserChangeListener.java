@@ -0,0 +1,36 @@
+package br.com.restapi.security.jwt;
+
+import br.com.restapi.model.User;
+import br.com.restapi.util.AfterCommit;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+@Component
+public class UserChangeListener {
+
+    // absent in JPA-only slices such as @DataJpaTest
+    private final ObjectProvider<PrincipalCache> principalCache;
+
+    private final ObjectProvider<TokenRevocationList> revocationList;
+
+    public UserChangeListener(ObjectProvider<PrincipalCache> principalCache,
+                              ObjectProvider<TokenRevocationList> revocationList) {
+        this.principalCache = principalCache;
+        this.revocationList = revocationList;
+    }
+
+    // Evicting before commit would let a concurrent request cache the old row again for the whole TTL.
+    // Bulk updates skip these callbacks, and so do changes to the permission join table alone; whatever
+    // makes them has to evict (and, for permissions, revoke) itself, as UserService.updatePassword does.
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        String userName = user.getUsername();
+        AfterCommit.run(() -> {
+            principalCache.ifAvailable(cache -> cache.evict(userName));
+            revocationList.ifAvailable(revocations -> revocations.revoke(userName));
+        });
+    }
+}
@@ -0,0 +1,58 @@
+package br.com.restapi.security.password;
+
+import br.com.restapi.config.LoginConfig;
+import br.com.restapi.exception.LoginThrottledException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+
+@Component
+public class LoginExecutor {
+
+    private final ThreadPoolExecutor executor;
+
+    private final long timeoutMillis;
+
+    public LoginExecutor(LoginConfig loginConfig, MeterRegistry meterRegistry) {
+        this.executor = new ThreadPoolExecutor(loginConfig.getPoolSize(), loginConfig.getPoolSize(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(loginConfig.getQueueCapacity()),
+                new CustomizableThreadFactory("login-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = loginConfig.getTimeout().toMillis();
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "login");
+    }
+
+    public <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new LoginThrottledException("Too many login attempts in progress, please try again later");
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new LoginThrottledException("Login took too long, please try again later");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new LoginThrottledException("Login was interrupted, please try again later");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
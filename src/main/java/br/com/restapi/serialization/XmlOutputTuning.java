@@ -0,0 +1,25 @@
+package br.com.restapi.serialization;
+
+import com.ctc.wstx.api.WstxOutputProperties;
+import com.fasterxml.jackson.dataformat.xml.XmlFactory;
+
+import javax.xml.stream.XMLOutputFactory;
+
+public final class XmlOutputTuning {
+
+    private XmlOutputTuning() {
+    }
+
+    // ToXmlGenerator only emits balanced elements and escaped text, so Woodstox re-checking
+    // structure and content on every element is pure overhead
+    public static XmlFactory skipValidation(XmlFactory factory) {
+        XMLOutputFactory output = factory.getXMLOutputFactory();
+        for (String property : new String[]{WstxOutputProperties.P_OUTPUT_VALIDATE_STRUCTURE,
+                WstxOutputProperties.P_OUTPUT_VALIDATE_CONTENT}) {
+            if (output.isPropertySupported(property)) {
+                output.setProperty(property, false);
+            }
+        }
+        return factory;
+    }
+}
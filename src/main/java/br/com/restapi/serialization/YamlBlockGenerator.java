@@ -0,0 +1,429 @@
+package br.com.restapi.serialization;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.base.GeneratorBase;
+import com.fasterxml.jackson.core.io.NumberOutput;
+import com.fasterxml.jackson.core.json.JsonWriteContext;
+import com.fasterxml.jackson.dataformat.yaml.util.StringQuotingChecker;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Writes block-style YAML straight to a Writer, producing what YAMLGenerator does with its default
+// features (document start marker, double-quoted strings, plain keys where safe) without going
+// through SnakeYAML's event emitter. Long strings are not folded across lines, and binary values
+// are written as quoted base64 rather than !!binary.
+public class YamlBlockGenerator extends GeneratorBase {
+
+    private static final int SLOT_ROOT = 0;
+    private static final int SLOT_KEY = 1;
+    private static final int SLOT_DASH = 2;
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final Writer out;
+
+    private final char[] buffer = new char[8000];
+
+    private int length;
+
+    private Frame frame;
+
+    // what opened the value slot on the current line: the document marker, a "key:" or a "-"
+    private int slot;
+
+    private int slotIndent;
+
+    // the cursor already sits after "- ", so the next key or dash needs no indentation
+    private boolean inline;
+
+    public YamlBlockGenerator(int features, ObjectCodec codec, Writer out) {
+        super(features, codec);
+        this.out = out;
+    }
+
+    @Override
+    public void writeStartArray() throws IOException {
+        _verifyValueWrite("start an array");
+        _writeContext = _writeContext.createChildArrayContext();
+        startContainer(true);
+    }
+
+    @Override
+    public void writeEndArray() throws IOException {
+        if (!_writeContext.inArray()) {
+            _reportError("Current context not Array but " + _writeContext.typeDesc());
+        }
+        _writeContext = _writeContext.clearAndGetParent();
+        endContainer(" []\n");
+    }
+
+    @Override
+    public void writeStartObject() throws IOException {
+        _verifyValueWrite("start an object");
+        _writeContext = _writeContext.createChildObjectContext();
+        startContainer(false);
+    }
+
+    @Override
+    public void writeEndObject() throws IOException {
+        if (!_writeContext.inObject()) {
+            _reportError("Current context not Object but " + _writeContext.typeDesc());
+        }
+        _writeContext = _writeContext.clearAndGetParent();
+        endContainer(" {}\n");
+    }
+
+    @Override
+    public void writeFieldName(String name) throws IOException {
+        if (_writeContext.writeFieldName(name) == JsonWriteContext.STATUS_EXPECT_VALUE) {
+            _reportError("Can not write a field name, expecting a value");
+        }
+        beginChild();
+        indent(frame.indent);
+        if (isPlainKey(name)) {
+            append(name);
+        } else {
+            appendQuoted(name);
+        }
+        append(':');
+        slot = SLOT_KEY;
+        slotIndent = frame.indent;
+    }
+
+    @Override
+    public void writeString(String text) throws IOException {
+        if (text == null) {
+            writeNull();
+            return;
+        }
+        _verifyValueWrite("write String value");
+        append(' ');
+        appendQuoted(text);
+        append('\n');
+    }
+
+    @Override
+    public void writeString(char[] text, int offset, int len) throws IOException {
+        writeString(new String(text, offset, len));
+    }
+
+    @Override
+    public void writeRawUTF8String(byte[] text, int offset, int length) throws IOException {
+        _reportUnsupportedOperation();
+    }
+
+    @Override
+    public void writeUTF8String(byte[] text, int offset, int length) throws IOException {
+        writeString(new String(text, offset, length, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void writeRaw(String text) throws IOException {
+        append(text);
+    }
+
+    @Override
+    public void writeRaw(String text, int offset, int len) throws IOException {
+        append(text.substring(offset, offset + len));
+    }
+
+    @Override
+    public void writeRaw(char[] text, int offset, int len) throws IOException {
+        append(new String(text, offset, len));
+    }
+
+    @Override
+    public void writeRaw(char c) throws IOException {
+        append(c);
+    }
+
+    @Override
+    public void writeBinary(Base64Variant variant, byte[] data, int offset, int len) throws IOException {
+        if (data == null) {
+            writeNull();
+            return;
+        }
+        _verifyValueWrite("write Binary value");
+        byte[] copy = (offset == 0 && len == data.length) ? data : Arrays.copyOfRange(data, offset, offset + len);
+        append(' ');
+        appendQuoted(variant.encode(copy));
+        append('\n');
+    }
+
+    @Override
+    public void writeNumber(int v) throws IOException {
+        writeScalar(String.valueOf(v));
+    }
+
+    @Override
+    public void writeNumber(long v) throws IOException {
+        writeScalar(String.valueOf(v));
+    }
+
+    @Override
+    public void writeNumber(BigInteger v) throws IOException {
+        if (v == null) {
+            writeNull();
+            return;
+        }
+        writeScalar(v.toString());
+    }
+
+    @Override
+    public void writeNumber(double v) throws IOException {
+        writeScalar(NumberOutput.toString(v, isEnabled(StreamWriteFeature.USE_FAST_DOUBLE_WRITER)));
+    }
+
+    @Override
+    public void writeNumber(float v) throws IOException {
+        writeScalar(NumberOutput.toString(v, isEnabled(StreamWriteFeature.USE_FAST_DOUBLE_WRITER)));
+    }
+
+    @Override
+    public void writeNumber(BigDecimal v) throws IOException {
+        if (v == null) {
+            writeNull();
+            return;
+        }
+        writeScalar(isEnabled(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN) ? v.toPlainString() : v.toString());
+    }
+
+    @Override
+    public void writeNumber(String encodedValue) throws IOException {
+        if (encodedValue == null) {
+            writeNull();
+            return;
+        }
+        writeScalar(encodedValue);
+    }
+
+    @Override
+    public void writeBoolean(boolean state) throws IOException {
+        writeScalar(state ? "true" : "false");
+    }
+
+    @Override
+    public void writeNull() throws IOException {
+        writeScalar("null");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        if (isEnabled(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (isClosed()) {
+            return;
+        }
+        super.close();
+        flushBuffer();
+        if (isEnabled(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            out.close();
+        } else if (isEnabled(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)) {
+            out.flush();
+        }
+    }
+
+    @Override
+    protected void _releaseBuffers() {
+    }
+
+    @Override
+    protected void _verifyValueWrite(String typeMsg) throws IOException {
+        if (_writeContext.writeValue() == JsonWriteContext.STATUS_EXPECT_NAME) {
+            _reportError("Can not " + typeMsg + ", expecting field name");
+        }
+        if (frame == null) {
+            // every root value is its own document
+            append("---");
+            slot = SLOT_ROOT;
+            slotIndent = 0;
+        } else if (frame.array) {
+            beginChild();
+            indent(frame.indent);
+            append('-');
+            slot = SLOT_DASH;
+            slotIndent = frame.indent;
+        }
+    }
+
+    private void writeScalar(String text) throws IOException {
+        _verifyValueWrite("write a value");
+        append(' ');
+        append(text);
+        append('\n');
+    }
+
+    // nothing is written until the first child shows whether the container is empty
+    private void startContainer(boolean array) {
+        int indent = switch (slot) {
+            case SLOT_KEY -> array ? slotIndent : slotIndent + 2;
+            case SLOT_DASH -> slotIndent + 2;
+            default -> 0;
+        };
+        frame = new Frame(frame, array, indent, slot);
+    }
+
+    private void endContainer(String empty) throws IOException {
+        if (frame.empty) {
+            append(empty);
+        }
+        frame = frame.parent;
+    }
+
+    private void beginChild() throws IOException {
+        if (frame.empty) {
+            frame.empty = false;
+            if (frame.openedBy == SLOT_DASH) {
+                append(' ');
+                inline = true;
+            } else {
+                append('\n');
+            }
+        }
+    }
+
+    private void indent(int spaces) throws IOException {
+        if (inline) {
+            inline = false;
+            return;
+        }
+        for (int i = 0; i < spaces; i++) {
+            append(' ');
+        }
+    }
+
+    private static boolean isPlainKey(String name) {
+        if (name.isEmpty() || StringQuotingChecker.Default.instance().needToQuoteName(name)) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean word = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+            boolean inner = i > 0 && (c == '-' || c == '.' || c == '/' || (c == ' ' && i < name.length() - 1));
+            if (!word && !inner) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the escapes SnakeYAML uses in double-quoted scalars; other printable characters are kept as they are
+    private void appendQuoted(String text) throws IOException {
+        append('"');
+        // copy the leading run that needs no escaping in one go, which is usually the whole string
+        int start = 0;
+        while (start < text.length()) {
+            char c = text.charAt(start);
+            if (c < 0x20 || c >= 0x7F || c == '"' || c == '\\') {
+                break;
+            }
+            start++;
+        }
+        append(start == text.length() ? text : text.substring(0, start));
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x20 && c < 0x7F && c != '"' && c != '\\') {
+                append(c);
+                continue;
+            }
+            switch (c) {
+                case '"' -> append("\\\"");
+                case '\\' -> append("\\\\");
+                case '\0' -> append("\\0");
+                case 0x07 -> append("\\a");
+                case '\b' -> append("\\b");
+                case '\t' -> append("\\t");
+                case '\n' -> append("\\n");
+                case 0x0B -> append("\\v");
+                case '\f' -> append("\\f");
+                case '\r' -> append("\\r");
+                case 0x1B -> append("\\e");
+                case 0x85 -> append("\\N");
+                case 0xA0 -> append("\\_");
+                case 0x2028 -> append("\\L");
+                case 0x2029 -> append("\\P");
+                default -> {
+                    if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                        append(c);
+                        append(text.charAt(++i));
+                    } else if (c < 0x20 || (c >= 0x7F && c < 0xA0)) {
+                        append("\\x");
+                        append(HEX[c >> 4]);
+                        append(HEX[c & 0xF]);
+                    } else if (Character.isSurrogate(c) || c == 0xFFFE || c == 0xFFFF) {
+                        append("\\u");
+                        append(HEX[c >> 12]);
+                        append(HEX[(c >> 8) & 0xF]);
+                        append(HEX[(c >> 4) & 0xF]);
+                        append(HEX[c & 0xF]);
+                    } else {
+                        append(c);
+                    }
+                }
+            }
+        }
+        append('"');
+    }
+
+    private void append(char c) throws IOException {
+        if (length == buffer.length) {
+            flushBuffer();
+        }
+        buffer[length++] = c;
+    }
+
+    private void append(String text) throws IOException {
+        int len = text.length();
+        if (len > buffer.length - length) {
+            flushBuffer();
+            if (len > buffer.length) {
+                out.write(text);
+                return;
+            }
+        }
+        text.getChars(0, len, buffer, length);
+        length += len;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (length > 0) {
+            out.write(buffer, 0, length);
+            length = 0;
+        }
+    }
+
+    private static final class Frame {
+
+        private final Frame parent;
+
+        private final boolean array;
+
+        // column of this container's keys or dashes
+        private final int indent;
+
+        private final int openedBy;
+
+        private boolean empty = true;
+
+        private Frame(Frame parent, boolean array, int indent, int openedBy) {
+            this.parent = parent;
+            this.array = array;
+            this.indent = indent;
+            this.openedBy = openedBy;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package br.com.restapi.service;
 
+import br.com.restapi.exception.LoginThrottledException;
+import br.com.restapi.model.User;
 import br.com.restapi.repository.UserRepository;
 import br.com.restapi.security.jwt.JwtTokenProvider;
+import br.com.restapi.security.password.LoginExecutor;
 import br.com.restapi.vo.v1.AccountCredentialsVO;
 import br.com.restapi.vo.v1.TokenVO;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +12,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
@@ -23,13 +27,16 @@ public class AuthService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LoginExecutor loginExecutor;
+
     public ResponseEntity signin(AccountCredentialsVO data) {
+        var userName = data.getUserName();
+        var password = data.getPassword();
+        var authentication = authenticate(userName, password);
         try {
-            var userName = data.getUserName();
-            var password = data.getPassword();
-            authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(userName, password));
-
-            var user = userRepository.findByUsername(userName);
+            var user = authentication.getPrincipal() instanceof User principal
+                    ? principal : userRepository.findByUsername(userName);
 
             var tokenResponse = new TokenVO();
 
@@ -44,18 +51,20 @@ public class AuthService {
         }
     }
 
-    public ResponseEntity refreshToken(String userName, String refreshToken) {
+    private Authentication authenticate(String userName, String password) {
         try {
-            var user = userRepository.findByUsername(userName);
-
-            var tokenResponse = new TokenVO();
+            return loginExecutor.execute(() -> authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(userName, password)));
+        } catch (LoginThrottledException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BadCredentialsException("Invalid username/password supllied");
+        }
+    }
 
-            if (user != null) {
-                tokenResponse = tokenProvider.refreshToken(refreshToken);
-            } else {
-                throw new UsernameNotFoundException("Username " + userName + " not found!");
-            }
-            return ResponseEntity.ok(tokenResponse);
+    public ResponseEntity refreshToken(String userName, String refreshToken) {
+        try {
+            return ResponseEntity.ok(tokenProvider.refreshToken(userName, refreshToken));
         } catch (Exception e) {
             throw new BadCredentialsException("Invalid username/password supllied");
         }
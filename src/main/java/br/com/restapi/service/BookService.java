@@ -1,19 +1,53 @@
 package br.com.restapi.service;
 
+import br.com.restapi.cache.CountCache;
+import br.com.restapi.cache.VOCache;
+import br.com.restapi.config.BatchConfig;
 import br.com.restapi.controller.BookController;
+import br.com.restapi.exception.BatchTooLargeException;
+import br.com.restapi.exception.InvalidPatchException;
+import br.com.restapi.exception.PreconditionFailedException;
 import br.com.restapi.exception.RequiredObjectIsNullException;
 import br.com.restapi.exception.ResourceNotFoundException;
-import br.com.restapi.mapper.DozerMapper;
+import br.com.restapi.export.ExportFormat;
+import br.com.restapi.export.TableExporter;
+import br.com.restapi.mapper.BookMapper;
 import br.com.restapi.model.Book;
 import br.com.restapi.repository.BookRepository;
+import br.com.restapi.util.KeysetCursor;
+import br.com.restapi.util.SelfLinkFactory;
+import br.com.restapi.vo.v1.BatchItemResultVO;
 import br.com.restapi.vo.v1.BookVO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.data.web.SlicedResourcesAssembler;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.PagedModel;
+import org.springframework.hateoas.SlicedModel;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.logging.Logger;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
@@ -21,69 +55,292 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 @Service
 public class BookService {
+    private static final String COUNT_KEY = "book";
+
+    private static final String EXPORT_SQL = "SELECT id, author, launch_date, price, title FROM book ORDER BY id";
+
+    private static final List<String> EXPORT_COLUMNS = List.of("id", "author", "launchDate", "price", "title");
+
     private Logger logger = Logger.getLogger(BookService.class.getName());
 
     private BookRepository repository;
 
     private PagedResourcesAssembler<BookVO> assembler;
 
-    public BookService(BookRepository repository, PagedResourcesAssembler assembler) {
+    private SlicedResourcesAssembler<BookVO> slicedAssembler;
+
+    private CountCache countCache;
+
+    private VOCache<BookVO> cache;
+
+    private BatchConfig batchConfig;
+
+    private TransactionTemplate transactionTemplate;
+
+    private TableExporter exporter;
+
+    private ObjectMapper objectMapper;
+
+    public BookService(BookRepository repository, PagedResourcesAssembler assembler,
+                       SlicedResourcesAssembler slicedAssembler, CountCache countCache,
+                       VOCache<BookVO> cache, BatchConfig batchConfig, TransactionTemplate transactionTemplate,
+                       TableExporter exporter, ObjectMapper objectMapper) {
         this.assembler = assembler;
+        this.slicedAssembler = slicedAssembler;
         this.repository = repository;
+        this.countCache = countCache;
+        this.cache = cache;
+        this.batchConfig = batchConfig;
+        this.transactionTemplate = transactionTemplate;
+        this.exporter = exporter;
+        this.objectMapper = objectMapper;
     }
 
-    public PagedModel<EntityModel<BookVO>> findAll(Pageable pageable) {
+    public PagedModel<EntityModel<BookVO>> findAll(Pageable pageable, boolean cachedCount) {
         logger.info("Finding all");
 
-        var bookPage = repository.findAll(pageable);
-        var bookVOPage = bookPage.map(b -> DozerMapper.parseObject(b,BookVO.class));
-        bookVOPage.map(b -> b.add(linkTo(methodOn(BookController.class)
-                .findById(b.getKey())).withSelfRel()));
+        var bookPage = cachedCount
+                ? PageableExecutionUtils.getPage(repository.findBooksSlice(pageable).getContent(), pageable,
+                        () -> countCache.get(COUNT_KEY, repository::count))
+                : repository.findAll(pageable);
+        var bookVOPage = bookPage.map(BookMapper::toVO);
+        bookVOPage.map(b -> b.add(SelfLinkFactory.book(b.getKey())));
 
-        Link link = linkTo(methodOn(BookController.class)
-                .findAll(pageable.getPageNumber(), pageable.getPageSize(), "asc")).withSelfRel();
+        var controller = methodOn(BookController.class);
+        Link link = linkTo(cachedCount
+                ? controller.findAllCachedCount(pageable.getPageNumber(), pageable.getPageSize(), "asc")
+                : controller.findAll(pageable.getPageNumber(), pageable.getPageSize(), "asc")).withSelfRel();
 
         return assembler.toModel(bookVOPage,link);
     }
 
+    public SlicedModel<EntityModel<BookVO>> findAllSlice(Pageable pageable) {
+        logger.info("Finding all without count");
+
+        var bookVOSlice = repository.findBooksSlice(pageable).map(BookMapper::toVO);
+        bookVOSlice.forEach(b -> b.add(SelfLinkFactory.book(b.getKey())));
+
+        Link link = linkTo(methodOn(BookController.class)
+                .findAllSlice(pageable.getPageNumber(), pageable.getPageSize(), "asc")).withSelfRel();
+
+        return slicedAssembler.toModel(bookVOSlice, link);
+    }
+
+    public CollectionModel<BookVO> findAllAfter(String after, int size, Sort.Direction direction) {
+        logger.info("Finding all after cursor");
+
+        var cursor = KeysetCursor.decode(after);
+        Pageable limit = PageRequest.of(0, size + 1, Sort.by(direction, "titleKey", "id"));
+        List<Book> books;
+        if (cursor == null) {
+            books = repository.findFirstBooks(limit);
+        } else if (direction == Sort.Direction.ASC) {
+            books = repository.findBooksAfter(cursor.sortKey(), cursor.id(), limit);
+        } else {
+            books = repository.findBooksBefore(cursor.sortKey(), cursor.id(), limit);
+        }
+        boolean hasNext = books.size() > size;
+        if (hasNext) {
+            books = books.subList(0, size);
+        }
+
+        var bookVOs = BookMapper.toVOList(books);
+        bookVOs.forEach(b -> b.add(SelfLinkFactory.book(b.getKey())));
+
+        String directionName = direction.name().toLowerCase();
+        var model = CollectionModel.of(bookVOs, linkTo(methodOn(BookController.class)
+                .findAllAfter(after, size, directionName)).withSelfRel());
+        if (hasNext) {
+            Book last = books.get(books.size() - 1);
+            String next = new KeysetCursor(titleKey(last.getTitle()), last.getId()).encode();
+            model.add(linkTo(methodOn(BookController.class)
+                    .findAllAfter(next, size, directionName)).withRel(IanaLinkRelations.NEXT));
+        }
+        return model;
+    }
+
+    // Mirrors the title_key column (V14) so cursors can be built from cached or freshly written books too
+    private static String titleKey(String title) {
+        if (title == null) {
+            return "";
+        }
+        return title.length() > 250 ? title.substring(0, 250) : title;
+    }
+
     public BookVO create(BookVO book) {
         if(book == null) throw  new RequiredObjectIsNullException();
         logger.info("Creating one book");
-        var entity = DozerMapper.parseObject(book, Book.class);
+        var entity = BookMapper.toEntity(book);
         entity = repository.save(entity);
-        var vo = DozerMapper.parseObject(entity, BookVO.class);
-        vo.add(linkTo(methodOn(BookController.class).findById(book.getKey())).withSelfRel());
+        countCache.invalidate(COUNT_KEY);
+        var vo = BookMapper.toVO(entity);
+        cache.put(vo.getKey(), vo);
+        vo.add(SelfLinkFactory.book(vo.getKey()));
         return vo;
     }
 
-    public BookVO update(BookVO book) {
+    // plain rows without links, straight from the database cursor
+    public void export(ExportFormat format, OutputStream out) throws IOException {
+        logger.info("Exporting all books");
+        exporter.export(EXPORT_SQL, EXPORT_COLUMNS, "books", "book", format, out);
+    }
+
+    public List<BatchItemResultVO> saveBatch(List<BookVO> books) {
+        if (books == null || books.isEmpty()) throw new RequiredObjectIsNullException();
+        if (books.size() > batchConfig.getMaxItems()) throw new BatchTooLargeException(batchConfig.getMaxItems());
+        logger.info("Saving a batch of books");
+
+        List<BatchItemResultVO> results = new ArrayList<>(books.size());
+        int chunkSize = batchConfig.getChunkSize();
+        for (int from = 0; from < books.size(); from += chunkSize) {
+            int offset = from;
+            var chunk = books.subList(from, Math.min(from + chunkSize, books.size()));
+            try {
+                results.addAll(transactionTemplate.execute(status -> saveChunk(chunk, offset)));
+            } catch (DataAccessException | TransactionException e) {
+                String message = "Chunk rolled back: " + e.getMostSpecificCause().getMessage();
+                for (int i = 0; i < chunk.size(); i++) {
+                    var vo = chunk.get(i);
+                    results.add(BatchItemResultVO.failed(offset + i, vo == null ? null : vo.getKey(), message));
+                }
+            }
+        }
+        countCache.invalidate(COUNT_KEY);
+        return results;
+    }
+
+    // one transaction per chunk: new rows go out as a single JDBC batch, updates reuse the rows loaded up front
+    private List<BatchItemResultVO> saveChunk(List<BookVO> chunk, int offset) {
+        var results = new BatchItemResultVO[chunk.size()];
+        Map<Long, Book> existing = new HashMap<>();
+        repository.findAllById(chunk.stream().filter(Objects::nonNull).map(BookVO::getKey).filter(Objects::nonNull).toList())
+                .forEach(entity -> existing.put(entity.getId(), entity));
+
+        List<Book> entities = new ArrayList<>(chunk.size());
+        List<Integer> positions = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            var vo = chunk.get(i);
+            if (vo == null) {
+                results[i] = BatchItemResultVO.failed(offset + i, null, "It is not allowed to persist a null object!");
+                continue;
+            }
+            var missing = missingFields(vo);
+            if (!missing.isEmpty()) {
+                results[i] = BatchItemResultVO.failed(offset + i, vo.getKey(),
+                        "Missing required fields: " + String.join(", ", missing));
+                continue;
+            }
+            Book entity;
+            if (vo.getKey() == null) {
+                entity = BookMapper.toEntity(vo);
+            } else {
+                entity = existing.get(vo.getKey());
+                if (entity == null) {
+                    results[i] = BatchItemResultVO.failed(offset + i, vo.getKey(), "No records found for this id");
+                    continue;
+                }
+                entity.setAuthor(vo.getAuthor());
+                entity.setLaunchDate(vo.getLaunchDate());
+                entity.setPrice(vo.getPrice());
+                entity.setTitle(vo.getTitle());
+                cache.invalidate(vo.getKey());
+            }
+            entities.add(entity);
+            positions.add(i);
+        }
+
+        repository.saveAll(entities);
+        repository.flush();
+        for (int j = 0; j < entities.size(); j++) {
+            int i = positions.get(j);
+            String status = chunk.get(i).getKey() == null ? BatchItemResultVO.CREATED : BatchItemResultVO.UPDATED;
+            results[i] = new BatchItemResultVO(offset + i, entities.get(j).getId(), status, null);
+        }
+        return Arrays.asList(results);
+    }
+
+    private static List<String> missingFields(BookVO vo) {
+        List<String> missing = new ArrayList<>();
+        if (vo.getAuthor() == null) missing.add("author");
+        if (vo.getLaunchDate() == null) missing.add("launch_date");
+        if (vo.getPrice() == null) missing.add("price");
+        if (vo.getTitle() == null) missing.add("title");
+        return missing;
+    }
+
+    // If-Match is checked against the version the entity was loaded with, usually a second-level cache hit, and
+    // again by the UPDATE ... WHERE version = ? that Hibernate flushes
+    @Transactional
+    public BookVO update(BookVO book, Long expectedVersion) {
         if(book == null) throw  new RequiredObjectIsNullException();
         logger.info("Updating one book");
         Book entity = repository.findById(book.getKey())
                 .orElseThrow(() -> new ResourceNotFoundException("No records found for this id"));
+        if (expectedVersion != null && !expectedVersion.equals(entity.getVersion())) {
+            throw new PreconditionFailedException("This book was changed since version " + expectedVersion);
+        }
 
         entity.setAuthor(book.getAuthor());
         entity.setLaunchDate(book.getLaunchDate());
         entity.setPrice(book.getPrice());
         entity.setTitle(book.getTitle());
 
-        entity = repository.save(entity);
-        var vo = DozerMapper.parseObject(entity, BookVO.class);
-        vo.add(linkTo(methodOn(BookController.class).findById(book.getKey())).withSelfRel());
+        entity = repository.saveAndFlush(entity);
+        cache.invalidate(entity.getId());
+        var vo = BookMapper.toVO(entity);
+        vo.add(SelfLinkFactory.book(vo.getKey()));
+        return vo;
+    }
+
+    // JSON Merge Patch (RFC 7396): absent members stay, null members are cleared; @DynamicUpdate keeps the
+    // UPDATE down to the columns that actually changed
+    @Transactional
+    public BookVO patch(Long id, JsonNode patch, Long expectedVersion) {
+        if (patch == null || !patch.isObject()) throw new InvalidPatchException("A merge patch must be a JSON object");
+        logger.info("Patching one book");
+        Book entity = repository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("No records found for this id"));
+        if (expectedVersion != null && !expectedVersion.equals(entity.getVersion())) {
+            throw new PreconditionFailedException("This book was changed since version " + expectedVersion);
+        }
+
+        var vo = BookMapper.toVO(entity);
+        try {
+            objectMapper.readerForUpdating(vo)
+                    .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .readValue(patch);
+        } catch (JsonProcessingException e) {
+            throw new InvalidPatchException("Invalid merge patch: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new InvalidPatchException("Invalid merge patch: " + e.getMessage());
+        }
+        if (!id.equals(vo.getKey())) throw new InvalidPatchException("The id of a book cannot be changed");
+        var missing = missingFields(vo);
+        if (!missing.isEmpty()) throw new InvalidPatchException("Required fields cannot be removed: " + String.join(", ", missing));
+
+        entity.setAuthor(vo.getAuthor());
+        entity.setLaunchDate(vo.getLaunchDate());
+        entity.setPrice(vo.getPrice());
+        entity.setTitle(vo.getTitle());
+        entity = repository.saveAndFlush(entity);
+        cache.invalidate(id);
+        vo = BookMapper.toVO(entity);
+        vo.add(SelfLinkFactory.book(id));
         return vo;
     }
 
     public BookVO findById(Long id) {
         logger.info("Finding one person");
-        var entity = repository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("No records found for this id"));
-        BookVO vo = DozerMapper.parseObject(entity, BookVO.class);
-        vo.add(linkTo(methodOn(BookController.class).findById(id)).withSelfRel());
+        var vo = cache.get(id, key -> BookMapper.toVO(repository.findById(key)
+                .orElseThrow(() -> new ResourceNotFoundException("No records found for this id"))));
+        vo.add(SelfLinkFactory.book(id));
         return vo;
     }
 
     public void delete(Long id) {
         logger.info("Deleting one person");
         repository.deleteById(id);
+        countCache.invalidate(COUNT_KEY);
+        cache.invalidate(id);
     }
 }
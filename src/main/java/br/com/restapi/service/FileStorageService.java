@@ -3,30 +3,83 @@ package br.com.restapi.service;
 import br.com.restapi.config.FileStorageConfig;
 import br.com.restapi.exception.FileStorageException;
 import br.com.restapi.exception.MyFileNotFoundException;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import br.com.restapi.file.ChecksumLog;
+import br.com.restapi.file.Checksums;
+import br.com.restapi.file.ContentAddressedStore;
+import br.com.restapi.file.FileMetadata;
+import br.com.restapi.file.FileMetadataIndex;
+import br.com.restapi.file.StoredFile;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.ServletContext;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
 public class FileStorageService {
 
+    // uploads in progress live next to their final location, so finishing one is a rename
+    private static final String TEMP_PREFIX = ".upload-";
+
+    private static final String CHECKSUM_LOG = ".checksums.log";
+
+    private static final int PUBLISH_STRIPES = 64;
+
     private final Path fileStorageLocation;
 
-    public FileStorageService(FileStorageConfig fileStorageConfig) {
+    // set in content-addressed mode, where it replaces the flat layout
+    private final ContentAddressedStore contentStore;
+
+    // set in flat mode, so a restart doesn't read every stored file again
+    private final ChecksumLog checksums;
+
+    // reads files through for their checksum, off the request threads
+    private final ExecutorService indexer;
+
+    private final FileMetadataIndex index;
+
+    // a rename and the index entry and log line that describe it happen under the name's stripe, so
+    // concurrent uploads under one name can't pair one's checksum with the other's size and mtime
+    private final Object[] publishLocks = new Object[PUBLISH_STRIPES];
+
+    public FileStorageService(FileStorageConfig fileStorageConfig, ServletContext servletContext) {
         Path path = Paths.get(fileStorageConfig.getUploadDir())
                 .toAbsolutePath().normalize();
 
         this.fileStorageLocation = path;
+        for (int i = 0; i < publishLocks.length; i++) {
+            publishLocks[i] = new Object();
+        }
+        this.indexer = Executors.newFixedThreadPool(Math.max(1, fileStorageConfig.getUploadThreads()),
+                new CustomizableThreadFactory("file-index-"));
 
         try {
             Files.createDirectories(this.fileStorageLocation);
+            try (var leftovers = Files.newDirectoryStream(this.fileStorageLocation, TEMP_PREFIX + "*")) {
+                for (Path leftover : leftovers) {
+                    Files.deleteIfExists(leftover);
+                }
+            }
+            this.contentStore = fileStorageConfig.isContentAddressed()
+                    ? new ContentAddressedStore(this.fileStorageLocation.resolve(".cas")) : null;
+            this.checksums = contentStore == null ? new ChecksumLog(this.fileStorageLocation.resolve(CHECKSUM_LOG)) : null;
+            this.index = new FileMetadataIndex(servletContext::getMimeType, indexer, this::checksummed);
+            rebuildIndex();
         } catch (Exception e) {
             throw new FileStorageException("Couldn't create the directory where the uploaded files will be stored", e);
         }
@@ -35,26 +88,162 @@ public class FileStorageService {
     public String storageFile(MultipartFile file) {
         String fileName = StringUtils.cleanPath(file.getOriginalFilename());
         try {
-            if (fileName.contains("..")) {
-                throw new FileStorageException("Sorry! Filename contains invalid path sequence" + fileName);
+            if (contentStore != null) {
+                try (InputStream content = file.getInputStream()) {
+                    storeFile(fileName, content);
+                }
+                return fileName;
             }
-            Path targetLocation = this.fileStorageLocation.resolve(fileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            // the container moves its spooled copy when it is on the same filesystem
+            store(fileName, temp -> {
+                file.transferTo(temp.toFile());
+                return Checksums.of(temp);
+            });
             return fileName;
+        } catch (FileStorageException e) {
+            throw e;
         } catch (Exception e) {
             throw new FileStorageException("Couldn't store file " + fileName + ". Please try again!", e);
         }
 
     }
 
-    public Resource loadFileAsresource(String fileName) {
+    // IOExceptions from the content stream, such as an exceeded upload limit, reach the caller unwrapped
+    public StoredFile storeFile(String originalFileName, InputStream content) throws IOException {
+        String fileName = StringUtils.cleanPath(originalFileName);
+        if (contentStore != null) {
+            checkFileName(fileName);
+            StoredFile stored = contentStore.store(fileName, content);
+            index.put(fileName, contentStore.blob(stored.checksum()), stored.checksum());
+            return stored;
+        }
+        return store(fileName, temp -> {
+            MessageDigest digest = Checksums.newDigest();
+            Files.copy(new DigestInputStream(content, digest), temp, StandardCopyOption.REPLACE_EXISTING);
+            return Checksums.hex(digest);
+        });
+    }
+
+    private StoredFile store(String fileName, TempFileWriter writer) throws IOException {
+        checkFileName(fileName);
+        Path temp = Files.createTempFile(this.fileStorageLocation, TEMP_PREFIX, ".tmp");
+        try {
+            String checksum = writer.write(temp);
+            // readers see either the previous file or the complete new one, never a partial write
+            Path target = this.fileStorageLocation.resolve(fileName);
+            FileMetadata metadata;
+            synchronized (publishLocks[Math.floorMod(fileName.hashCode(), publishLocks.length)]) {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                metadata = index.put(fileName, target, checksum);
+                checksums.record(metadata);
+            }
+            return new StoredFile(fileName, metadata.size(), checksum);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    // served from the index; a file the startup scan hasn't reached yet is only stat'ed, never read here
+    public FileMetadata loadMetadata(String fileName) {
+        FileMetadata metadata = index.get(fileName);
+        if (metadata != null) {
+            return metadata;
+        }
+        Path file = loadFile(fileName);
         try {
-            Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-            if (resource.exists()) return resource;
-            else throw new MyFileNotFoundException("File not found");
-        } catch (Exception e) {
+            metadata = index.put(fileName, file, contentStore != null ? file.getFileName().toString() : null);
+        } catch (IOException e) {
             throw new MyFileNotFoundException("File not found " + fileName, e);
         }
+        if (metadata == null) {
+            throw new MyFileNotFoundException("File not found " + fileName);
+        }
+        return metadata;
+    }
+
+    // where the bytes behind the metadata live, worked out without touching the filesystem
+    public Path locate(FileMetadata metadata) {
+        return contentStore != null ? contentStore.blob(metadata.checksum())
+                : this.fileStorageLocation.resolve(metadata.name());
+    }
+
+    // for files that went away behind the index's back
+    public void evict(String fileName) {
+        index.remove(fileName);
+    }
+
+    public Path loadFile(String fileName) {
+        if (contentStore != null) {
+            Path blob = contentStore.resolve(fileName);
+            if (blob == null) {
+                throw new MyFileNotFoundException("File not found " + fileName);
+            }
+            return blob;
+        }
+        Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
+        if (!filePath.startsWith(this.fileStorageLocation) || isReserved(filePath.getFileName().toString())
+                || !Files.isRegularFile(filePath)) {
+            throw new MyFileNotFoundException("File not found " + fileName);
+        }
+        return filePath;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        indexer.shutdownNow();
+        if (contentStore != null) {
+            contentStore.close();
+        }
+        if (checksums != null) {
+            checksums.close();
+        }
+    }
+
+    // runs in the background; downloads don't wait for it
+    private void rebuildIndex() throws IOException {
+        Map<String, Path> files = new HashMap<>();
+        if (contentStore != null) {
+            Map<String, String> hashes = contentStore.names();
+            hashes.forEach((name, hash) -> files.put(name, contentStore.blob(hash)));
+            index.rebuild(files, metadata -> hashes.get(metadata.name()));
+            return;
+        }
+        try (var stored = Files.newDirectoryStream(this.fileStorageLocation,
+                file -> !isReserved(file.getFileName().toString()))) {
+            for (Path file : stored) {
+                files.put(file.getFileName().toString(), file);
+            }
+        }
+        index.rebuild(files, checksums::get);
+    }
+
+    // only flat mode computes checksums after the fact
+    private void checksummed(FileMetadata metadata) {
+        try {
+            checksums.record(metadata);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void checkFileName(String fileName) {
+        if (fileName.contains("..")) {
+            throw new FileStorageException("Sorry! Filename contains invalid path sequence" + fileName);
+        }
+        if (isReserved(fileName)) {
+            throw new FileStorageException("Sorry! Filename is reserved " + fileName);
+        }
+    }
+
+    // the service's own files: uploads in progress, deleted as leftovers at startup, and the checksum log
+    private static boolean isReserved(String fileName) {
+        return fileName.startsWith(TEMP_PREFIX) || fileName.equals(CHECKSUM_LOG);
+    }
+
+    @FunctionalInterface
+    private interface TempFileWriter {
+        // fills the temp file and returns the checksum of what it wrote
+        String write(Path temp) throws IOException;
     }
 }
@@ -1,20 +1,64 @@
 package br.com.restapi.service;
 
+import br.com.restapi.cache.CountCache;
+import br.com.restapi.cache.VOCache;
+import br.com.restapi.config.BatchConfig;
 import br.com.restapi.controller.PersonController;
+import br.com.restapi.etag.EtagIndex;
+import br.com.restapi.exception.BatchTooLargeException;
+import br.com.restapi.exception.InvalidBulkRequestException;
+import br.com.restapi.exception.InvalidPatchException;
+import br.com.restapi.exception.PreconditionFailedException;
 import br.com.restapi.exception.RequiredObjectIsNullException;
 import br.com.restapi.exception.ResourceNotFoundException;
-import br.com.restapi.mapper.DozerMapper;
+import br.com.restapi.export.ExportFormat;
+import br.com.restapi.export.TableExporter;
+import br.com.restapi.mapper.PersonMapper;
 import br.com.restapi.model.Person;
 import br.com.restapi.repository.PersonRepository;
+import br.com.restapi.search.PersonNameIndex;
+import br.com.restapi.util.AfterCommit;
+import br.com.restapi.util.KeysetCursor;
+import br.com.restapi.util.SelfLinkFactory;
+import br.com.restapi.vo.v1.BatchItemResultVO;
+import br.com.restapi.vo.v1.BulkRequestVO;
+import br.com.restapi.vo.v1.BulkResultVO;
 import br.com.restapi.vo.v1.PersonVO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.data.web.SlicedResourcesAssembler;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.PagedModel;
+import org.springframework.hateoas.SlicedModel;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.logging.Logger;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
@@ -22,38 +66,133 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 @Service
 public class PersonService {
+    private static final String COUNT_KEY = "person";
+
+    private static final String EXPORT_SQL = "SELECT id, first_name, last_name, address, gender, enabled FROM person ORDER BY id";
+
+    private static final List<String> EXPORT_COLUMNS = List.of("id", "first_name", "last_name", "address", "gender", "enabled");
+
     private Logger logger = Logger.getLogger(PersonService.class.getName());
 
     private PersonRepository repository;
 
     private PagedResourcesAssembler<PersonVO> assembler;
 
-    public PersonService(PersonRepository repository, PagedResourcesAssembler<PersonVO> assembler) {
+    private SlicedResourcesAssembler<PersonVO> slicedAssembler;
+
+    private CountCache countCache;
+
+    private PersonNameIndex nameIndex;
+
+    private VOCache<PersonVO> cache;
+
+    private BatchConfig batchConfig;
+
+    private TransactionTemplate transactionTemplate;
+
+    private TableExporter exporter;
+
+    private EtagIndex etagIndex;
+
+    private ObjectMapper objectMapper;
+
+    public PersonService(PersonRepository repository, PagedResourcesAssembler<PersonVO> assembler,
+                         SlicedResourcesAssembler<PersonVO> slicedAssembler, CountCache countCache,
+                         PersonNameIndex nameIndex, VOCache<PersonVO> cache,
+                         BatchConfig batchConfig, TransactionTemplate transactionTemplate,
+                         TableExporter exporter, EtagIndex etagIndex,
+                         ObjectMapper objectMapper) {
         this.assembler = assembler;
+        this.slicedAssembler = slicedAssembler;
         this.repository = repository;
+        this.countCache = countCache;
+        this.nameIndex = nameIndex;
+        this.cache = cache;
+        this.batchConfig = batchConfig;
+        this.transactionTemplate = transactionTemplate;
+        this.exporter = exporter;
+        this.etagIndex = etagIndex;
+        this.objectMapper = objectMapper;
     }
 
-    public PagedModel<EntityModel<PersonVO>> findAll(Pageable pageable) {
+    public PagedModel<EntityModel<PersonVO>> findAll(Pageable pageable, boolean cachedCount) {
         logger.info("Finding all");
 
-        var personPage  = repository.findAll(pageable);
-        var personVOPage = personPage.map(p -> DozerMapper.parseObject(p, PersonVO.class));
-        personVOPage.map(p -> p.add(linkTo(methodOn(PersonController.class)
-                .findById(p.getKey())).withSelfRel()));
+        var personPage = cachedCount
+                ? PageableExecutionUtils.getPage(repository.findPersonsSlice(pageable).getContent(), pageable,
+                        () -> countCache.get(COUNT_KEY, repository::count))
+                : repository.findAll(pageable);
+        var personVOPage = personPage.map(PersonMapper::toVO);
+        personVOPage.map(p -> p.add(SelfLinkFactory.person(p.getKey())));
 
-        Link link = linkTo(methodOn(PersonController.class)
-                .findAll(pageable.getPageNumber(), pageable.getPageSize(), "asc")).withSelfRel();
+        var controller = methodOn(PersonController.class);
+        Link link = linkTo(cachedCount
+                ? controller.findAllCachedCount(pageable.getPageNumber(), pageable.getPageSize(), "asc")
+                : controller.findAll(pageable.getPageNumber(), pageable.getPageSize(), "asc")).withSelfRel();
 
         return assembler.toModel(personVOPage,link) ;
     }
 
-    public PagedModel<EntityModel<PersonVO>> findPersonsByName(Pageable pageable,String firstName) {
+    public SlicedModel<EntityModel<PersonVO>> findAllSlice(Pageable pageable) {
+        logger.info("Finding all without count");
+
+        var personVOSlice = repository.findPersonsSlice(pageable).map(PersonMapper::toVO);
+        personVOSlice.forEach(p -> p.add(SelfLinkFactory.person(p.getKey())));
+
+        Link link = linkTo(methodOn(PersonController.class)
+                .findAllSlice(pageable.getPageNumber(), pageable.getPageSize(), "asc")).withSelfRel();
+
+        return slicedAssembler.toModel(personVOSlice, link);
+    }
+
+    public CollectionModel<PersonVO> findAllAfter(String after, int size, Sort.Direction direction) {
+        logger.info("Finding all after cursor");
+
+        var cursor = KeysetCursor.decode(after);
+        Pageable limit = PageRequest.of(0, size + 1, Sort.by(direction, "firstName", "id"));
+        List<Person> people;
+        if (cursor == null) {
+            people = repository.findFirstPersons(limit);
+        } else if (direction == Sort.Direction.ASC) {
+            people = repository.findPersonsAfter(cursor.sortKey(), cursor.id(), limit);
+        } else {
+            people = repository.findPersonsBefore(cursor.sortKey(), cursor.id(), limit);
+        }
+        boolean hasNext = people.size() > size;
+        if (hasNext) {
+            people = people.subList(0, size);
+        }
+
+        var personVOs = PersonMapper.toVOList(people);
+        personVOs.forEach(p -> p.add(SelfLinkFactory.person(p.getKey())));
+
+        String directionName = direction.name().toLowerCase();
+        var model = CollectionModel.of(personVOs, linkTo(methodOn(PersonController.class)
+                .findAllAfter(after, size, directionName)).withSelfRel());
+        if (hasNext) {
+            Person last = people.get(people.size() - 1);
+            String next = new KeysetCursor(last.getFirstName(), last.getId()).encode();
+            model.add(linkTo(methodOn(PersonController.class)
+                    .findAllAfter(next, size, directionName)).withRel(IanaLinkRelations.NEXT));
+        }
+        return model;
+    }
+
+    public PagedModel<EntityModel<PersonVO>> findPersonsByName(Pageable pageable,String firstName, boolean cachedCount) {
         logger.info("Finding all");
 
-        var personPage  = repository.findPersonsByName(pageable,firstName);
-        var personVOPage = personPage.map(p -> DozerMapper.parseObject(p, PersonVO.class));
-        personVOPage.map(p -> p.add(linkTo(methodOn(PersonController.class)
-                .findById(p.getKey())).withSelfRel()));
+        Page<Person> personPage;
+        if (nameIndex.isReady()) {
+            personPage = searchByName(pageable, firstName);
+        } else {
+            personPage = cachedCount
+                    ? PageableExecutionUtils.getPage(repository.findPersonsByNameSlice(pageable, firstName).getContent(),
+                            pageable, () -> countCache.get(COUNT_KEY + ":name:" + firstName.toLowerCase(),
+                                    () -> repository.countPersonsByName(firstName)))
+                    : repository.findPersonsByName(pageable,firstName);
+        }
+        var personVOPage = personPage.map(PersonMapper::toVO);
+        personVOPage.map(p -> p.add(SelfLinkFactory.person(p.getKey())));
 
         Link link = linkTo(methodOn(PersonController.class)
                 .findAll(pageable.getPageNumber(), pageable.getPageSize(), "asc")).withSelfRel();
@@ -61,54 +200,279 @@ public class PersonService {
         return assembler.toModel(personVOPage,link) ;
     }
 
+    public SlicedModel<EntityModel<PersonVO>> findPersonsByNameSlice(Pageable pageable, String firstName) {
+        logger.info("Finding all by name without count");
+
+        Slice<Person> personSlice;
+        if (nameIndex.isReady()) {
+            var page = searchByName(pageable, firstName);
+            personSlice = new SliceImpl<>(page.getContent(), pageable, page.hasNext());
+        } else {
+            personSlice = repository.findPersonsByNameSlice(pageable, firstName);
+        }
+        var personVOSlice = personSlice.map(PersonMapper::toVO);
+        personVOSlice.forEach(p -> p.add(SelfLinkFactory.person(p.getKey())));
+
+        Link link = linkTo(methodOn(PersonController.class)
+                .findPersonsByNameSlice(firstName, pageable.getPageNumber(), pageable.getPageSize(), "asc"))
+                .withSelfRel();
+
+        return slicedAssembler.toModel(personVOSlice, link);
+    }
+
+    private Page<Person> searchByName(Pageable pageable, String firstName) {
+        var ids = nameIndex.search(firstName, pageable);
+        var order = ids.getContent();
+        Map<Long, Integer> position = new HashMap<>();
+        for (int i = 0; i < order.size(); i++) {
+            position.put(order.get(i), i);
+        }
+        var people = new ArrayList<>(repository.findAllById(order));
+        people.sort(Comparator.comparingInt(p -> position.get(p.getId())));
+        return new PageImpl<>(people, pageable, ids.getTotalElements());
+    }
+
     public PersonVO create(PersonVO person) {
         if(person == null) throw  new RequiredObjectIsNullException();
         logger.info("Creating one person");
-        var entity = DozerMapper.parseObject(person, Person.class);
+        var entity = PersonMapper.toEntity(person);
         entity = repository.save(entity);
-        var vo = DozerMapper.parseObject(entity, PersonVO.class);
-        vo.add(linkTo(methodOn(PersonController.class).findById(person.getKey())).withSelfRel());
+        countCache.invalidate(COUNT_KEY);
+        var vo = PersonMapper.toVO(entity);
+        cache.put(vo.getKey(), vo);
+        vo.add(SelfLinkFactory.person(vo.getKey()));
         return vo;
     }
 
-    public PersonVO update(PersonVO person) {
+    // plain rows without links, straight from the database cursor
+    public void export(ExportFormat format, OutputStream out) throws IOException {
+        logger.info("Exporting all people");
+        exporter.export(EXPORT_SQL, EXPORT_COLUMNS, "people", "person", format, out);
+    }
+
+    public List<BatchItemResultVO> saveBatch(List<PersonVO> people) {
+        if (people == null || people.isEmpty()) throw new RequiredObjectIsNullException();
+        if (people.size() > batchConfig.getMaxItems()) throw new BatchTooLargeException(batchConfig.getMaxItems());
+        logger.info("Saving a batch of people");
+
+        List<BatchItemResultVO> results = new ArrayList<>(people.size());
+        int chunkSize = batchConfig.getChunkSize();
+        for (int from = 0; from < people.size(); from += chunkSize) {
+            int offset = from;
+            var chunk = people.subList(from, Math.min(from + chunkSize, people.size()));
+            try {
+                results.addAll(transactionTemplate.execute(status -> saveChunk(chunk, offset)));
+            } catch (DataAccessException | TransactionException e) {
+                String message = "Chunk rolled back: " + e.getMostSpecificCause().getMessage();
+                for (int i = 0; i < chunk.size(); i++) {
+                    var vo = chunk.get(i);
+                    results.add(BatchItemResultVO.failed(offset + i, vo == null ? null : vo.getKey(), message));
+                }
+            }
+        }
+        countCache.invalidate(COUNT_KEY);
+        return results;
+    }
+
+    // one transaction per chunk: new rows go out as a single JDBC batch, updates reuse the rows loaded up front
+    private List<BatchItemResultVO> saveChunk(List<PersonVO> chunk, int offset) {
+        var results = new BatchItemResultVO[chunk.size()];
+        Map<Long, Person> existing = new HashMap<>();
+        repository.findAllById(chunk.stream().filter(Objects::nonNull).map(PersonVO::getKey).filter(Objects::nonNull).toList())
+                .forEach(entity -> existing.put(entity.getId(), entity));
+
+        List<Person> entities = new ArrayList<>(chunk.size());
+        List<Integer> positions = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            var vo = chunk.get(i);
+            if (vo == null) {
+                results[i] = BatchItemResultVO.failed(offset + i, null, "It is not allowed to persist a null object!");
+                continue;
+            }
+            var missing = missingFields(vo, vo.getKey() == null);
+            if (!missing.isEmpty()) {
+                results[i] = BatchItemResultVO.failed(offset + i, vo.getKey(),
+                        "Missing required fields: " + String.join(", ", missing));
+                continue;
+            }
+            Person entity;
+            if (vo.getKey() == null) {
+                entity = PersonMapper.toEntity(vo);
+            } else {
+                entity = existing.get(vo.getKey());
+                if (entity == null) {
+                    results[i] = BatchItemResultVO.failed(offset + i, vo.getKey(), "No records found for this id");
+                    continue;
+                }
+                entity.setFirstName(vo.getFirstName());
+                entity.setLastName(vo.getLastName());
+                entity.setGender(vo.getGender());
+                entity.setAddress(vo.getAddress());
+                cache.invalidate(vo.getKey());
+            }
+            entities.add(entity);
+            positions.add(i);
+        }
+
+        repository.saveAll(entities);
+        repository.flush();
+        for (int j = 0; j < entities.size(); j++) {
+            int i = positions.get(j);
+            String status = chunk.get(i).getKey() == null ? BatchItemResultVO.CREATED : BatchItemResultVO.UPDATED;
+            results[i] = new BatchItemResultVO(offset + i, entities.get(j).getId(), status, null);
+        }
+        return Arrays.asList(results);
+    }
+
+    private static List<String> missingFields(PersonVO vo, boolean isNew) {
+        List<String> missing = new ArrayList<>();
+        if (vo.getFirstName() == null) missing.add("first_name");
+        if (vo.getLastName() == null) missing.add("last_name");
+        if (vo.getAddress() == null) missing.add("address");
+        if (vo.getGender() == null) missing.add("gender");
+        if (isNew && vo.getEnabled() == null) missing.add("enabled");
+        return missing;
+    }
+
+    // If-Match is checked against the version the entity was loaded with, usually a second-level cache hit, and
+    // again by the UPDATE ... WHERE version = ? that Hibernate flushes; the normal entity path only evicts this row
+    @Transactional
+    public PersonVO update(PersonVO person, Long expectedVersion) {
         if(person == null) throw  new RequiredObjectIsNullException();
         logger.info("Updating one person");
         Person entity = repository.findById(person.getKey())
                 .orElseThrow(() -> new ResourceNotFoundException("No records found for this id"));
+        if (expectedVersion != null && !expectedVersion.equals(entity.getVersion())) {
+            throw new PreconditionFailedException("This person was changed since version " + expectedVersion);
+        }
 
         entity.setFirstName(person.getFirstName());
         entity.setLastName(person.getLastName());
         entity.setGender(person.getGender());
         entity.setAddress(person.getAddress());
 
-        entity = repository.save(entity);
-        var vo = DozerMapper.parseObject(entity, PersonVO.class);
-        vo.add(linkTo(methodOn(PersonController.class).findById(person.getKey())).withSelfRel());
+        entity = repository.saveAndFlush(entity);
+        countCache.invalidate(COUNT_KEY + ":name:");
+        cache.invalidate(entity.getId());
+        var vo = PersonMapper.toVO(entity);
+        vo.add(SelfLinkFactory.person(vo.getKey()));
+        return vo;
+    }
+
+    // JSON Merge Patch (RFC 7396): absent members stay, null members are cleared; @DynamicUpdate keeps the
+    // UPDATE down to the columns that actually changed
+    @Transactional
+    public PersonVO patch(Long id, JsonNode patch, Long expectedVersion) {
+        if (patch == null || !patch.isObject()) throw new InvalidPatchException("A merge patch must be a JSON object");
+        logger.info("Patching one person");
+        Person entity = repository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("No records found for this id"));
+        if (expectedVersion != null && !expectedVersion.equals(entity.getVersion())) {
+            throw new PreconditionFailedException("This person was changed since version " + expectedVersion);
+        }
+
+        var vo = PersonMapper.toVO(entity);
+        try {
+            objectMapper.readerForUpdating(vo)
+                    .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .readValue(patch);
+        } catch (JsonProcessingException e) {
+            throw new InvalidPatchException("Invalid merge patch: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new InvalidPatchException("Invalid merge patch: " + e.getMessage());
+        }
+        if (!id.equals(vo.getKey())) throw new InvalidPatchException("The id of a person cannot be changed");
+        var missing = missingFields(vo, true);
+        if (!missing.isEmpty()) throw new InvalidPatchException("Required fields cannot be removed: " + String.join(", ", missing));
+
+        entity.setFirstName(vo.getFirstName());
+        entity.setLastName(vo.getLastName());
+        entity.setAddress(vo.getAddress());
+        entity.setGender(vo.getGender());
+        entity.setEnabled(vo.getEnabled());
+        entity = repository.saveAndFlush(entity);
+        countCache.invalidate(COUNT_KEY + ":name:");
+        cache.invalidate(id);
+        vo = PersonMapper.toVO(entity);
+        vo.add(SelfLinkFactory.person(id));
         return vo;
     }
 
     public PersonVO findById(Long id) {
         logger.info("Finding one person");
-        var entity = repository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("No records found for this id"));
-        PersonVO vo = DozerMapper.parseObject(entity, PersonVO.class);
-        vo.add(linkTo(methodOn(PersonController.class).findById(id)).withSelfRel());
+        var vo = cache.get(id, key -> PersonMapper.toVO(repository.findById(key)
+                .orElseThrow(() -> new ResourceNotFoundException("No records found for this id"))));
+        vo.add(SelfLinkFactory.person(id));
         return vo;
     }
     @Transactional
     public PersonVO disablePerson(Long id) {
         logger.info("Disabling one person");
-        repository.disablePerson(id);
         var entity = repository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("No records found for this id"));
-        PersonVO vo = DozerMapper.parseObject(entity, PersonVO.class);
-        vo.add(linkTo(methodOn(PersonController.class).findById(id)).withSelfRel());
+        entity.setEnabled(false);
+        entity = repository.saveAndFlush(entity);
+        cache.invalidate(id);
+        PersonVO vo = PersonMapper.toVO(entity);
+        vo.add(SelfLinkFactory.person(id));
         return vo;
     }
 
     public void delete(Long id) {
         logger.info("Deleting one person");
         repository.deleteById(id);
+        countCache.invalidate(COUNT_KEY);
+        cache.invalidate(id);
+    }
+
+    @Transactional
+    public BulkResultVO disablePersons(BulkRequestVO request) {
+        var ids = resolveIds(request);
+        logger.info("Disabling people in bulk");
+        long affected = 0;
+        int chunkSize = batchConfig.getChunkSize();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            affected += repository.disablePersons(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+        }
+        cache.invalidateAll(ids);
+        AfterCommit.run(() -> etagIndex.touchAll("person", ids));
+        return new BulkResultVO(affected);
+    }
+
+    @Transactional
+    public BulkResultVO deletePersons(BulkRequestVO request) {
+        var ids = resolveIds(request);
+        logger.info("Deleting people in bulk");
+        long affected = 0;
+        int chunkSize = batchConfig.getChunkSize();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            affected += repository.deletePersons(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+        }
+        // bulk statements skip the entity listeners, so the name index and etags are told directly
+        AfterCommit.run(() -> ids.forEach(nameIndex::remove));
+        cache.invalidateAll(ids);
+        AfterCommit.run(() -> etagIndex.touchAll("person", ids));
+        countCache.invalidate(COUNT_KEY);
+        return new BulkResultVO(affected);
+    }
+
+    // filters are resolved to ids first so caches and the name index can be invalidated precisely
+    private List<Long> resolveIds(BulkRequestVO request) {
+        if (request == null) throw new RequiredObjectIsNullException();
+        boolean byIds = request.getIds() != null && !request.getIds().isEmpty();
+        boolean byFilter = request.getFirstName() != null || request.getGender() != null;
+        if (!byIds && !byFilter) throw new InvalidBulkRequestException("A bulk request needs ids, first_name or gender");
+        int maxItems = batchConfig.getMaxItems();
+        if (byIds && request.getIds().size() > maxItems) throw new BatchTooLargeException(maxItems);
+
+        if (byIds) {
+            var ids = request.getIds().stream().filter(Objects::nonNull).distinct().toList();
+            return byFilter ? repository.findIdsByFilterAmong(ids, request.getFirstName(), request.getGender()) : ids;
+        }
+        // a filter alone is held to the same cap; one id past it is enough to know
+        var matches = repository.findIdsByFilter(request.getFirstName(), request.getGender(),
+                PageRequest.of(0, maxItems + 1));
+        if (matches.size() > maxItems) throw new BatchTooLargeException(maxItems);
+        return matches;
     }
 }
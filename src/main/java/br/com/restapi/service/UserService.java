@@ -5,14 +5,19 @@ import br.com.restapi.exception.RequiredObjectIsNullException;
 import br.com.restapi.exception.ResourceNotFoundException;
 import br.com.restapi.mapper.DozerMapper;
 import br.com.restapi.model.Person;
+import br.com.restapi.model.User;
 import br.com.restapi.repository.PersonRepository;
 import br.com.restapi.repository.UserRepository;
+import br.com.restapi.security.jwt.PrincipalCache;
+import br.com.restapi.util.AfterCommit;
 import br.com.restapi.vo.v1.PersonVO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.logging.Logger;
@@ -21,13 +26,16 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
     private Logger logger = Logger.getLogger(UserService.class.getName());
     @Autowired
     private UserRepository repository;
 
-    public UserService(UserRepository repository) {
+    private final PrincipalCache principalCache;
+
+    public UserService(UserRepository repository, PrincipalCache principalCache) {
         this.repository = repository;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -40,4 +48,17 @@ public class UserService implements UserDetailsService {
             throw new UsernameNotFoundException("Username " + username + " not found");
         }
     }
+
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        logger.info("Rehashing password of one user");
+        repository.updatePassword(user.getUsername(), newPassword);
+        if (user instanceof User entity) {
+            entity.setPassword(newPassword);
+        }
+        // same password, new hash: outstanding tokens stay valid, only the cached principal is stale
+        AfterCommit.run(() -> principalCache.evict(user.getUsername()));
+        return user;
+    }
 }
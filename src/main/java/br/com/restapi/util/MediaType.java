@@ -4,4 +4,10 @@ public class MediaType {
     public static final String APPLICATION_YML = "application/x-yaml";
     public static final String APPLICATION_XML = "application/xml";
     public static final String APPLICATION_JSON = "application/json";
+    public static final String APPLICATION_CBOR = "application/cbor";
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+    public static final String APPLICATION_PROTOBUF = "application/x-protobuf";
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    public static final String APPLICATION_MERGE_PATCH_JSON = "application/merge-patch+json";
+    public static final String TEXT_CSV = "text/csv";
 }
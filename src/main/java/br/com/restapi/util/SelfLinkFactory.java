@@ -0,0 +1,49 @@
+package br.com.restapi.util;
+
+import br.com.restapi.controller.BookController;
+import br.com.restapi.controller.PersonController;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.hateoas.Link;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+public class SelfLinkFactory {
+
+    private static final String BASE_URI_ATTRIBUTE = SelfLinkFactory.class.getName() + ".BASE_URI";
+
+    private static final String PERSON_PATH = mappingPath(PersonController.class) + "/";
+
+    private static final String BOOK_PATH = mappingPath(BookController.class) + "/";
+
+    private SelfLinkFactory() {
+    }
+
+    public static Link person(Long id) {
+        return Link.of(baseUri() + PERSON_PATH + id);
+    }
+
+    public static Link book(Long id) {
+        return Link.of(baseUri() + BOOK_PATH + id);
+    }
+
+    // Same base linkTo(methodOn(...)) would use, resolved once per request instead of once per link
+    private static String baseUri() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return "";
+        }
+        String baseUri = (String) attributes.getAttribute(BASE_URI_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (baseUri == null) {
+            baseUri = ServletUriComponentsBuilder.fromCurrentServletMapping().build().toUriString();
+            attributes.setAttribute(BASE_URI_ATTRIBUTE, baseUri, RequestAttributes.SCOPE_REQUEST);
+        }
+        return baseUri;
+    }
+
+    private static String mappingPath(Class<?> controller) {
+        RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(controller, RequestMapping.class);
+        return mapping.path()[0];
+    }
+}
@@ -0,0 +1,68 @@
+package br.com.restapi.vo.v1;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.io.Serializable;
+
+@JsonPropertyOrder({"index", "id", "status", "message"})
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResultVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String FAILED = "FAILED";
+
+    private int index;
+    private Long id;
+    private String status;
+    private String message;
+
+    public BatchItemResultVO() {
+    }
+
+    public BatchItemResultVO(int index, Long id, String status, String message) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.message = message;
+    }
+
+    public static BatchItemResultVO failed(int index, Long id, String message) {
+        return new BatchItemResultVO(index, id, FAILED, message);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -9,7 +9,7 @@ import java.io.Serializable;
 import java.util.Date;
 import java.util.Objects;
 
-@JsonPropertyOrder({"id", "author", "launchDate", "price", "title"})
+@JsonPropertyOrder({"id", "author", "launchDate", "price", "title", "version"})
 public class BookVO extends RepresentationModel<BookVO> implements Serializable {
     private static final long serialVersionUID = 1L;
     @JsonProperty("id")
@@ -19,6 +19,7 @@ public class BookVO extends RepresentationModel<BookVO> implements Serializable
     private Date launchDate;
     private Double price;
     private String title;
+    private Long version;
 
     public BookVO() {
     }
@@ -63,17 +64,25 @@ public class BookVO extends RepresentationModel<BookVO> implements Serializable
         this.title = title;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         if (!super.equals(o)) return false;
         BookVO bookVO = (BookVO) o;
-        return Objects.equals(key, bookVO.key) && Objects.equals(author, bookVO.author) && Objects.equals(price, bookVO.price) && Objects.equals(title, bookVO.title);
+        return Objects.equals(key, bookVO.key) && Objects.equals(author, bookVO.author) && Objects.equals(price, bookVO.price) && Objects.equals(title, bookVO.title) && Objects.equals(version, bookVO.version);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), key, author, price, title);
+        return Objects.hash(super.hashCode(), key, author, price, title, version);
     }
 }
@@ -0,0 +1,46 @@
+package br.com.restapi.vo.v1;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.io.Serializable;
+import java.util.List;
+
+// ids and filter fields narrow each other; at least one of them is required
+@JsonPropertyOrder({"ids", "first_name", "gender"})
+public class BulkRequestVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<Long> ids;
+    @JsonProperty("first_name")
+    private String firstName;
+    private String gender;
+
+    public BulkRequestVO() {
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getGender() {
+        return gender;
+    }
+
+    public void setGender(String gender) {
+        this.gender = gender;
+    }
+}
@@ -0,0 +1,25 @@
+package br.com.restapi.vo.v1;
+
+import java.io.Serializable;
+
+public class BulkResultVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long affected;
+
+    public BulkResultVO() {
+    }
+
+    public BulkResultVO(long affected) {
+        this.affected = affected;
+    }
+
+    public long getAffected() {
+        return affected;
+    }
+
+    public void setAffected(long affected) {
+        this.affected = affected;
+    }
+}
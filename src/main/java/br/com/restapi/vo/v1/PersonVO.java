@@ -9,7 +9,7 @@ import org.springframework.hateoas.RepresentationModel;
 import java.io.Serializable;
 import java.util.Objects;
 
-@JsonPropertyOrder({"id", "firstName", "lastName", "address", "gender"})
+@JsonPropertyOrder({"id", "firstName", "lastName", "address", "gender", "enabled", "version"})
 public class PersonVO extends RepresentationModel<PersonVO> implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -24,6 +24,7 @@ public class PersonVO extends RepresentationModel<PersonVO> implements Serializa
     private String address;
     private String gender;
     private Boolean enabled;
+    private Long version;
 
     public PersonVO() {
     }
@@ -75,6 +76,14 @@ public class PersonVO extends RepresentationModel<PersonVO> implements Serializa
     public void setEnabled(Boolean enabled) {
         this.enabled = enabled;
     }
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -86,7 +95,8 @@ public class PersonVO extends RepresentationModel<PersonVO> implements Serializa
                 && Objects.equals(lastName, personVO.lastName)
                 && Objects.equals(address, personVO.address)
                 && Objects.equals(gender, personVO.gender)
-                && Objects.equals(enabled, personVO.enabled);
+                && Objects.equals(enabled, personVO.enabled)
+                && Objects.equals(version, personVO.version);
     }
 
     @Override
@@ -96,6 +106,7 @@ public class PersonVO extends RepresentationModel<PersonVO> implements Serializa
                 , lastName
                 , address
                 , gender
-                , enabled);
+                , enabled
+                , version);
     }
 }
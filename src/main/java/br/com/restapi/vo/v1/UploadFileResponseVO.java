@@ -1,5 +1,7 @@
 package br.com.restapi.vo.v1;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.io.Serializable;
 
 public class UploadFileResponseVO implements Serializable {
@@ -10,6 +12,9 @@ public class UploadFileResponseVO implements Serializable {
     private String fileDownloadUri;
     private String fileType;
     private long size;
+    // set, and no download URI, when this file could not be stored
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
 
     public UploadFileResponseVO() {
     }
@@ -21,6 +26,12 @@ public class UploadFileResponseVO implements Serializable {
         this.size = size;
     }
 
+    public static UploadFileResponseVO failed(String fileName, String fileType, long size, String error) {
+        var response = new UploadFileResponseVO(fileName, null, fileType, size);
+        response.setError(error);
+        return response;
+    }
+
     public String getFileName() {
         return fileName;
     }
@@ -52,4 +63,12 @@ public class UploadFileResponseVO implements Serializable {
     public void setSize(long size) {
         this.size = size;
     }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
 }
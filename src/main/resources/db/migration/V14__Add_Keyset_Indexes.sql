@@ -0,0 +1,4 @@
+CREATE INDEX `idx_person_first_name_id` ON `person` (`first_name`, `id`);
+-- title stays a nullable longtext, which can't be indexed; the seek runs on a bounded, never-null copy
+ALTER TABLE `book` ADD COLUMN `title_key` varchar(250) AS (COALESCE(LEFT(`title`, 250), '')) STORED NOT NULL;
+CREATE INDEX `idx_book_title_id` ON `book` (`title_key`, `id`);
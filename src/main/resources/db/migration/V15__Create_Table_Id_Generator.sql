@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS `id_generator` (
+  `entity` varchar(40) NOT NULL,
+  `next_id` bigint NOT NULL,
+  PRIMARY KEY (`entity`)
+) ENGINE=InnoDB;
+
+-- pooled blocks of 50: the stored value is the top of the next block, so seed it 50 above the current max
+INSERT INTO `id_generator` (`entity`, `next_id`) SELECT 'person', COALESCE(MAX(`id`), 0) + 50 FROM `person`;
+INSERT INTO `id_generator` (`entity`, `next_id`) SELECT 'book', COALESCE(MAX(`id`), 0) + 50 FROM `book`;
@@ -0,0 +1,105 @@
+package br.com.restapi.benchmarks;
+
+import br.com.restapi.ProtobufJacksonHttpMessageConverter;
+import br.com.restapi.YamlJacksonToHttpMessageConverter;
+import br.com.restapi.unittests.mapper.mocks.MockPerson;
+import br.com.restapi.vo.v1.PersonVO;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.converter.xml.MappingJackson2XmlHttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Encodes and decodes a 1000-person PagedModel with the same message converters the API uses.
+// Decoding reads into a tree, since only the VOs (not the page models) can be read back as objects.
+// Payload sizes are printed once per trial.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinaryFormatBenchmark {
+
+    private static final int ITEMS = 1000;
+
+    @Param({"json", "xml", "yaml", "cbor", "smile", "protobuf"})
+    private String format;
+
+    private HttpMessageConverter<Object> converter;
+
+    private MediaType mediaType;
+
+    private ObjectReader reader;
+
+    private PagedModel<EntityModel<PersonVO>> page;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        MockPerson mockPerson = new MockPerson();
+        List<EntityModel<PersonVO>> people = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            PersonVO person = mockPerson.mockVO(i);
+            person.setVersion(0L);
+            person.add(Link.of("http://localhost:8080/api/person/v1/" + i));
+            people.add(EntityModel.of(person));
+        }
+        page = PagedModel.of(people, new PagedModel.PageMetadata(ITEMS, 0, 100_000),
+                Link.of("http://localhost:8080/api/person/v1?page=0&size=1000&direction=asc"));
+
+        converter = switch (format) {
+            case "json" -> new MappingJackson2HttpMessageConverter();
+            case "xml" -> new MappingJackson2XmlHttpMessageConverter();
+            case "yaml" -> new YamlJacksonToHttpMessageConverter();
+            case "cbor" -> new MappingJackson2CborHttpMessageConverter();
+            case "smile" -> new MappingJackson2SmileHttpMessageConverter();
+            case "protobuf" -> new ProtobufJacksonHttpMessageConverter();
+            default -> throw new IllegalArgumentException(format);
+        };
+        mediaType = converter.getSupportedMediaTypes().get(0);
+        if (converter instanceof AbstractJackson2HttpMessageConverter jackson) {
+            reader = jackson.getObjectMapper().readerFor(JsonNode.class);
+        } else {
+            var schema = ProtobufSchemaLoader.std
+                    .loadNative(new ClassPathResource("proto/restapi.proto").getInputStream(), true)
+                    .forType("PersonPage");
+            reader = new ProtobufMapper().readerFor(JsonNode.class).with(schema);
+        }
+
+        encoded = encode();
+        System.out.printf("%n%s: %d bytes for %d people%n", format, encoded.length, ITEMS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public byte[] encode() throws IOException {
+        var out = new MockHttpOutputMessage();
+        converter.write(page, mediaType, out);
+        return out.getBodyAsBytes();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public JsonNode decode() throws IOException {
+        return reader.readValue(encoded);
+    }
+}
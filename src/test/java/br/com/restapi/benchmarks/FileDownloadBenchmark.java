@@ -0,0 +1,126 @@
+package br.com.restapi.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.UrlResource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Sends a stored file into a loopback socket that a background thread drains, the way a download reaches
+// the client. "resource" is the old path (UrlResource stream copied by ResourceHttpMessageConverter),
+// "sendfile" what Tomcat does with the attributes RangeFileSender sets, "transferTo" its fallback onto
+// a response stream. Scores are files per second.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileDownloadBenchmark {
+
+    @Param({"1048576", "104857600"})
+    private int size;
+
+    private Path file;
+
+    private ServerSocketChannel server;
+
+    private SocketChannel client;
+
+    private OutputStream clientStream;
+
+    private Thread drain;
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("download", ".bin");
+        byte[] chunk = new byte[1 << 20];
+        ThreadLocalRandom.current().nextBytes(chunk);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int written = 0; written < size; written += chunk.length) {
+                out.write(chunk, 0, Math.min(chunk.length, size - written));
+            }
+        }
+
+        server = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        client = SocketChannel.open(server.getLocalAddress());
+        SocketChannel accepted = server.accept();
+        drain = new Thread(() -> {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+            try (accepted) {
+                while (accepted.read(buffer) >= 0) {
+                    buffer.clear();
+                }
+            } catch (IOException ignored) {
+                // the client side closed at teardown
+            }
+        });
+        drain.setDaemon(true);
+        drain.start();
+        // a plain stream, as the servlet container hands out; Channels would otherwise unwrap it back to the socket
+        OutputStream socketStream = Channels.newOutputStream(client);
+        clientStream = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                socketStream.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                socketStream.write(b, off, len);
+            }
+        };
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        client.close();
+        drain.join();
+        server.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long resource() throws IOException {
+        try (InputStream in = new UrlResource(file.toUri()).getInputStream()) {
+            return StreamUtils.copy(in, clientStream);
+        }
+    }
+
+    @Benchmark
+    public long sendfile() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long sent = 0;
+            while (sent < size) {
+                sent += channel.transferTo(sent, size - sent, client);
+            }
+            return sent;
+        }
+    }
+
+    @Benchmark
+    public long transferTo() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var target = Channels.newChannel(clientStream);
+            long sent = 0;
+            while (sent < size) {
+                sent += channel.transferTo(sent, size - sent, target);
+            }
+            return sent;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package br.com.restapi.benchmarks;
+
+import br.com.restapi.config.FileStorageConfig;
+import br.com.restapi.file.UploadExecutor;
+import br.com.restapi.service.FileStorageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Wall-clock time of storing one uploadMultipleFiles batch: "sequential" is the old one-after-another
+// map over the files, "parallel" the UploadExecutor path with the default caps (8 threads, 4 per request).
+// Each file is fsynced after it is stored, and writeLatencyMillis adds a fixed wait per file for storage
+// slower than the local disk (a network volume); on a fast local disk with few cores there is little to overlap.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileUploadBenchmark {
+
+    // many small files, or a few large ones
+    @Param({"50x65536", "4x33554432"})
+    private String batch;
+
+    @Param({"0", "5"})
+    private int writeLatencyMillis;
+
+    private Path dir;
+
+    private FileStorageService service;
+
+    private UploadExecutor executor;
+
+    private List<MultipartFile> files;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("upload-benchmark");
+        var config = new FileStorageConfig();
+        config.setUploadDir(dir.toString());
+        service = new FileStorageService(config, new MockServletContext());
+        executor = new UploadExecutor(config, new SimpleMeterRegistry());
+
+        int count = Integer.parseInt(batch.substring(0, batch.indexOf('x')));
+        int size = Integer.parseInt(batch.substring(batch.indexOf('x') + 1));
+        files = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] content = new byte[size];
+            ThreadLocalRandom.current().nextBytes(content);
+            files.add(new MockMultipartFile("files", "file-" + i + ".bin", "application/octet-stream", content));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        executor.shutdown();
+        service.close();
+        FileSystemUtils.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public List<String> sequential() {
+        return files.stream().map(this::store).toList();
+    }
+
+    @Benchmark
+    public List<String> parallel() {
+        return executor.submitAll(files, this::store).stream().map(CompletableFuture::join).toList();
+    }
+
+    private String store(MultipartFile file) {
+        String name = service.storageFile(file);
+        try (var channel = FileChannel.open(dir.resolve(name), StandardOpenOption.WRITE)) {
+            channel.force(true);
+            if (writeLatencyMillis > 0) {
+                Thread.sleep(writeLatencyMillis);
+            }
+        } catch (IOException | InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return name;
+    }
+}
@@ -0,0 +1,68 @@
+package br.com.restapi.benchmarks;
+
+import br.com.restapi.security.jwt.InMemoryRefreshTokenStore;
+import br.com.restapi.security.jwt.JwtTokenProvider;
+import br.com.restapi.security.jwt.TokenRevocationList;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+    private JwtTokenProvider provider;
+    private String secretKey;
+    private String token;
+
+    @Setup
+    public void setup() {
+        provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "secretKey", "53cr37");
+        ReflectionTestUtils.setField(provider, "validityInMilliseconds", 3600000L);
+        ReflectionTestUtils.setField(provider, "revocationList", new TokenRevocationList(3600000L));
+        ReflectionTestUtils.setField(provider, "refreshTokenStore", new InMemoryRefreshTokenStore(10000, 3600000L));
+        ReflectionTestUtils.invokeMethod(provider, "init");
+        secretKey = (String) ReflectionTestUtils.getField(provider, "secretKey");
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        token = provider.createAccessToken("alison", List.of("ADMIN")).getAccessToken();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    // Verification only: the principal lookup is left out so the PrincipalCache doesn't
+    // flatter the shared verifier.
+    @Benchmark
+    public DecodedJWT perRequestVerifierTwice() {
+        DecodedJWT validated = legacyDecodedToken(token);
+        if (validated.getExpiresAt().before(new Date())) {
+            return null;
+        }
+        return legacyDecodedToken(token);
+    }
+
+    @Benchmark
+    public DecodedJWT sharedVerifierOnce() {
+        return provider.verifyToken(token);
+    }
+
+    private DecodedJWT legacyDecodedToken(String token) {
+        var alg = Algorithm.HMAC256(secretKey.getBytes());
+        JWTVerifier verifier = JWT.require(alg).build();
+        return verifier.verify(token);
+    }
+}
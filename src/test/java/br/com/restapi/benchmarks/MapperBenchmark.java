@@ -0,0 +1,65 @@
+package br.com.restapi.benchmarks;
+
+import br.com.restapi.mapper.BookMapper;
+import br.com.restapi.mapper.DozerMapper;
+import br.com.restapi.mapper.PersonMapper;
+import br.com.restapi.model.Book;
+import br.com.restapi.model.Person;
+import br.com.restapi.unittests.mapper.mocks.MockBook;
+import br.com.restapi.unittests.mapper.mocks.MockPerson;
+import br.com.restapi.vo.v1.BookVO;
+import br.com.restapi.vo.v1.PersonVO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"1", "12", "1000"})
+    private int size;
+
+    private List<Person> people;
+    private List<Book> books;
+
+    @Setup
+    public void setup() {
+        MockPerson mockPerson = new MockPerson();
+        MockBook mockBook = new MockBook();
+        people = new ArrayList<>(size);
+        books = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Person person = mockPerson.mockEntity(i);
+            person.setEnabled(true);
+            people.add(person);
+            books.add(mockBook.mockEntity(i));
+        }
+    }
+
+    @Benchmark
+    public List<PersonVO> dozerPeople() {
+        return DozerMapper.parseListObjects(people, PersonVO.class);
+    }
+
+    @Benchmark
+    public List<PersonVO> handRolledPeople() {
+        return PersonMapper.toVOList(people);
+    }
+
+    @Benchmark
+    public List<BookVO> dozerBooks() {
+        return DozerMapper.parseListObjects(books, BookVO.class);
+    }
+
+    @Benchmark
+    public List<BookVO> handRolledBooks() {
+        return BookMapper.toVOList(books);
+    }
+}
@@ -0,0 +1,69 @@
+package br.com.restapi.benchmarks;
+
+import br.com.restapi.Startup;
+import br.com.restapi.service.PersonService;
+import br.com.restapi.vo.v1.PersonVO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Needs a database: runs against spring.datasource.* from application.yml unless
+// overridden with -Dspring.datasource.url=... (plus username/password) on the JMH command line.
+// Scores are rows per second.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonBatchBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private ConfigurableApplicationContext context;
+
+    private PersonService service;
+
+    private List<PersonVO> people;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(Startup.class)
+                .run("--server.port=0", "--spring.jpa.show-sql=false", "--search.person-name-index.enabled=false");
+        service = context.getBean(PersonService.class);
+
+        people = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            PersonVO person = new PersonVO();
+            person.setFirstName("Bench" + i);
+            person.setLastName("Mark");
+            person.setAddress("Somewhere " + i);
+            person.setGender(i % 2 == 0 ? "Male" : "Female");
+            person.setEnabled(true);
+            people.add(person);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void createOneByOne() {
+        for (PersonVO person : people) {
+            service.create(person);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Object saveBatch() {
+        return service.saveBatch(people);
+    }
+}
@@ -0,0 +1,56 @@
+package br.com.restapi.benchmarks;
+
+import br.com.restapi.search.PersonNameIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonNameIndexBenchmark {
+
+    private static final String SYLLABLES = "ba be bi bo ca ce ci da de di fa fe lo lu ma me mi na ne ni ra re ro sa se ta to";
+
+    @Param({"100000", "1000000"})
+    private int people;
+
+    @Param({"marco", "lu", "lumi", "ka"})
+    private String query;
+
+    private PersonNameIndex index;
+
+    private Pageable pageable;
+
+    @Setup
+    public void setup() {
+        String[] syllables = SYLLABLES.split(" ");
+        Random random = new Random(42);
+        index = new PersonNameIndex(mock(JdbcTemplate.class), true);
+        for (long id = 1; id <= people; id++) {
+            StringBuilder name = new StringBuilder();
+            for (int i = 2 + random.nextInt(3); i > 0; i--) {
+                name.append(syllables[random.nextInt(syllables.length)]);
+            }
+            index.put(id, name.toString());
+        }
+        index.put(people + 1L, "Marcos");
+        pageable = PageRequest.of(0, 12, Sort.by(Sort.Direction.ASC, "firstName"));
+    }
+
+    @Benchmark
+    public Page<Long> search() {
+        return index.search(query, pageable);
+    }
+}
@@ -0,0 +1,61 @@
+package br.com.restapi.benchmarks;
+
+import br.com.restapi.controller.PersonController;
+import br.com.restapi.util.SelfLinkFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.Link;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SelfLinkBenchmark {
+
+    @Param({"12", "1000"})
+    private int size;
+
+    // Each invocation stands for one request rendering a page of `size` people
+    private void bindRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/person/v1");
+        request.setServerName("localhost");
+        request.setServerPort(8080);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @TearDown(Level.Invocation)
+    public void unbindRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public List<Link> methodOnProxy() {
+        bindRequest();
+        List<Link> links = new ArrayList<>(size);
+        for (long id = 0; id < size; id++) {
+            links.add(linkTo(methodOn(PersonController.class).findById(id)).withSelfRel());
+        }
+        return links;
+    }
+
+    @Benchmark
+    public List<Link> selfLinkFactory() {
+        bindRequest();
+        List<Link> links = new ArrayList<>(size);
+        for (long id = 0; id < size; id++) {
+            links.add(SelfLinkFactory.person(id));
+        }
+        return links;
+    }
+}
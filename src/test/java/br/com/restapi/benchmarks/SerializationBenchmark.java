@@ -0,0 +1,103 @@
+package br.com.restapi.benchmarks;
+
+import br.com.restapi.YamlJacksonToHttpMessageConverter;
+import br.com.restapi.serialization.XmlOutputTuning;
+import br.com.restapi.unittests.mapper.mocks.MockPerson;
+import br.com.restapi.vo.v1.PersonVO;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.dataformat.xml.XmlFactory;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.xml.MappingJackson2XmlHttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Renders a single PersonVO (size 1) or a PagedModel of people through the message converters.
+// "stock" is the plain Jackson setup, "tuned" the converters WebConfig registers; JSON is the same in both.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"json", "xml", "yaml"})
+    private String format;
+
+    @Param({"1", "12", "100", "1000"})
+    private int size;
+
+    private Object body;
+
+    private MediaType mediaType;
+
+    private HttpMessageConverter<Object> stock;
+
+    private HttpMessageConverter<Object> tuned;
+
+    @Setup
+    public void setup() {
+        MockPerson mockPerson = new MockPerson();
+        List<EntityModel<PersonVO>> people = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            PersonVO person = mockPerson.mockVO(i);
+            person.setEnabled(i % 2 == 0);
+            person.setVersion(0L);
+            person.add(Link.of("http://localhost:8080/api/person/v1/" + i));
+            people.add(EntityModel.of(person));
+        }
+        body = size == 1 ? people.get(0).getContent()
+                : PagedModel.of(people, new PagedModel.PageMetadata(size, 0, 100_000),
+                        Link.of("http://localhost:8080/api/person/v1?page=0&size=" + size + "&direction=asc"));
+
+        switch (format) {
+            case "json" -> {
+                stock = new MappingJackson2HttpMessageConverter();
+                tuned = stock;
+            }
+            case "xml" -> {
+                stock = new MappingJackson2XmlHttpMessageConverter();
+                tuned = new MappingJackson2XmlHttpMessageConverter(
+                        new XmlMapper(XmlOutputTuning.skipValidation(new XmlFactory())));
+            }
+            case "yaml" -> {
+                stock = new AbstractJackson2HttpMessageConverter(
+                        new YAMLMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL),
+                        MediaType.parseMediaType("application/x-yaml")) {
+                };
+                tuned = new YamlJacksonToHttpMessageConverter();
+            }
+            default -> throw new IllegalArgumentException(format);
+        }
+        mediaType = stock.getSupportedMediaTypes().get(0);
+    }
+
+    @Benchmark
+    public byte[] stock() throws IOException {
+        return write(stock);
+    }
+
+    @Benchmark
+    public byte[] tuned() throws IOException {
+        return write(tuned);
+    }
+
+    private byte[] write(HttpMessageConverter<Object> converter) throws IOException {
+        var out = new MockHttpOutputMessage();
+        converter.write(body, mediaType, out);
+        return out.getBodyAsBytes();
+    }
+}
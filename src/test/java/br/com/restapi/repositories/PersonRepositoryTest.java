@@ -14,6 +14,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.io.IOException;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -56,7 +57,7 @@ public class PersonRepositoryTest extends AbstractIntegrationTest {
     @Test
     @Order(2)
     void testDisablePerson() throws IOException {
-        repository.disablePerson(person.getId());
+        repository.disablePersons(List.of(person.getId()));
         Pageable pageable = PageRequest.of(0, 6, Sort.by(Sort.Direction.ASC, "firstName"));
         person = repository.findPersonsByName(pageable, "ryn").getContent().get(0);
 
@@ -0,0 +1,89 @@
+package br.com.restapi.repositories;
+
+import br.com.restapi.integrationtests.testcontainers.AbstractIntegrationTest;
+import br.com.restapi.model.User;
+import br.com.restapi.repository.PersonRepository;
+import br.com.restapi.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("cache-stats")
+// every repository call gets its own session, so repeated reads can only be served by the shared caches
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SecondLevelCacheTest extends AbstractIntegrationTest {
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testFindByIdIsServedFromCache() {
+        Long id = personRepository.findAll(PageRequest.of(0, 1)).getContent().get(0).getId();
+        personRepository.findById(id).orElseThrow();
+        long statements = statistics.getPrepareStatementCount();
+
+        var person = personRepository.findById(id).orElseThrow();
+
+        assertEquals(id, person.getId());
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    @Test
+    void testFindByUsernameIsServedFromCache() {
+        userRepository.findByUsername("alison");
+        long statements = statistics.getPrepareStatementCount();
+
+        User user = userRepository.findByUsername("alison");
+
+        assertEquals("alison", user.getUsername());
+        assertFalse(user.getRoles().isEmpty());
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getQueryCacheHitCount() > 0);
+    }
+
+    @Test
+    void testFindPersonsByNameIsServedFromCache() {
+        Pageable pageable = PageRequest.of(0, 6, Sort.by(Sort.Direction.ASC, "firstName"));
+        personRepository.findPersonsByName(pageable, "ryn");
+        long statements = statistics.getPrepareStatementCount();
+
+        var page = personRepository.findPersonsByName(pageable, "ryn");
+
+        assertFalse(page.getContent().isEmpty());
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getQueryCacheHitCount() > 0);
+    }
+}
@@ -0,0 +1,76 @@
+package br.com.restapi.unittests.converter;
+
+import br.com.restapi.ProtobufJacksonHttpMessageConverter;
+import br.com.restapi.unittests.mapper.mocks.MockBook;
+import br.com.restapi.unittests.mapper.mocks.MockPerson;
+import br.com.restapi.vo.v1.BookVO;
+import br.com.restapi.vo.v1.PersonVO;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProtobufJacksonHttpMessageConverterTest {
+
+    private static final MediaType PROTOBUF = MediaType.parseMediaType("application/x-protobuf");
+
+    private final ProtobufJacksonHttpMessageConverter converter = new ProtobufJacksonHttpMessageConverter();
+
+    @Test
+    void testPersonRoundTrip() throws Exception {
+        PersonVO person = new MockPerson().mockVO(1);
+        person.setVersion(3L);
+        person.add(Link.of("/api/person/v1/1"));
+
+        var out = new MockHttpOutputMessage();
+        converter.write(person, PROTOBUF, out);
+        var read = (PersonVO) converter.read(PersonVO.class, new MockHttpInputMessage(out.getBodyAsBytes()));
+
+        assertEquals(1L, read.getKey());
+        assertEquals("First Name Test1", read.getFirstName());
+        assertEquals("Last Name Test1", read.getLastName());
+        assertEquals(person.getEnabled(), read.getEnabled());
+        assertEquals(3L, read.getVersion());
+    }
+
+    @Test
+    void testBookPage() throws Exception {
+        MockBook mockBook = new MockBook();
+        List<EntityModel<BookVO>> books = List.of(EntityModel.of(mockBook.mockVO(1)), EntityModel.of(mockBook.mockVO(2)));
+        var page = PagedModel.of(books, new PagedModel.PageMetadata(2, 0, 5), Link.of("/api/book/v1?page=0"));
+
+        var out = new MockHttpOutputMessage();
+        converter.write(page, PROTOBUF, out);
+
+        var schema = ProtobufSchemaLoader.std
+                .loadNative(new ClassPathResource("proto/restapi.proto").getInputStream(), true).forType("BookPage");
+        JsonNode tree = new ProtobufMapper().readerFor(JsonNode.class).with(schema).readValue(out.getBodyAsBytes());
+
+        assertEquals(2, tree.get("content").size());
+        assertEquals("Some Title2", tree.get("content").get(1).get("title").asText());
+        assertEquals(25D, tree.get("content").get(0).get("price").asDouble());
+        assertEquals(5, tree.get("page").get("totalElements").asLong());
+        assertEquals(3, tree.get("page").get("totalPages").asLong());
+        assertEquals("self", tree.get("links").get(0).get("rel").asText());
+        assertEquals("/api/book/v1?page=0", tree.get("links").get(0).get("href").asText());
+    }
+
+    @Test
+    void testCanRead() {
+        assertTrue(converter.canRead(PersonVO.class, PROTOBUF));
+        assertFalse(converter.canRead(PagedModel.class, PROTOBUF));
+        assertTrue(converter.canWrite(PagedModel.class, PROTOBUF));
+        assertFalse(converter.canWrite(String.class, PROTOBUF));
+    }
+}
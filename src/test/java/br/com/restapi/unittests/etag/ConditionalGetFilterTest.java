@@ -0,0 +1,116 @@
+package br.com.restapi.unittests.etag;
+
+import br.com.restapi.etag.ConditionalGetFilter;
+import br.com.restapi.etag.EtagIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConditionalGetFilterTest {
+    private EtagIndex index;
+    private ConditionalGetFilter filter;
+    private AtomicInteger calls;
+    private String body;
+
+    @BeforeEach
+    void setup() {
+        index = new EtagIndex(1000, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        filter = new ConditionalGetFilter(index);
+        calls = new AtomicInteger();
+        body = "{\"id\":1}";
+    }
+
+    private MockHttpServletResponse get(String uri, String ifNoneMatch) throws Exception {
+        var request = new MockHttpServletRequest("GET", uri);
+        request.addHeader("Accept", "application/json");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            calls.incrementAndGet();
+            res.getWriter().write(body);
+        });
+        return response;
+    }
+
+    @Test
+    void testMatchingRowIsAnsweredFromTheIndex() throws Exception {
+        String etag = get("/api/person/v1/1", null).getHeader("ETag");
+        assertNotNull(etag);
+
+        var response = get("/api/person/v1/1", etag);
+
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals("", response.getContentAsString());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testBothAnswersVaryOnAccept() throws Exception {
+        var ok = get("/api/person/v1/1", null);
+        var notModified = get("/api/person/v1/1", ok.getHeader("ETag"));
+
+        assertEquals(HttpServletResponse.SC_OK, ok.getStatus());
+        assertEquals(List.of("Accept"), ok.getHeaders("Vary"));
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, notModified.getStatus());
+        assertEquals(List.of("Accept"), notModified.getHeaders("Vary"));
+    }
+
+    @Test
+    void testWriteInvalidatesRowAndPages() throws Exception {
+        String row = get("/api/book/v1/1", null).getHeader("ETag");
+        String page = get("/api/book/v1", null).getHeader("ETag");
+
+        index.touch("book", 1L);
+        body = "{\"id\":1,\"title\":\"changed\"}";
+
+        assertEquals(HttpServletResponse.SC_OK, get("/api/book/v1/1", row).getStatus());
+        assertEquals(HttpServletResponse.SC_OK, get("/api/book/v1", page).getStatus());
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void testUnchangedBodyStillGets304AfterAWrite() throws Exception {
+        String row = get("/api/person/v1/2", null).getHeader("ETag");
+
+        index.touchAll("person", List.of(2L));
+
+        var response = get("/api/person/v1/2", row);
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testResponseComputedAcrossAWriteIsNotRecorded() throws Exception {
+        var request = new MockHttpServletRequest("GET", "/api/person/v1/3");
+        request.addHeader("Accept", "application/json");
+        var first = new MockHttpServletResponse();
+        filter.doFilter(request, first, (req, res) -> {
+            res.getWriter().write(body);
+            index.touch("person", 3L);
+        });
+
+        var response = get("/api/person/v1/3", first.getHeader("ETag"));
+
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testExportIsNotBuffered() throws Exception {
+        var response = get("/api/person/v1/export", null);
+
+        assertNull(response.getHeader("ETag"));
+        assertEquals(body, response.getContentAsString());
+    }
+}
@@ -0,0 +1,29 @@
+package br.com.restapi.unittests.etag;
+
+import br.com.restapi.etag.VersionTag;
+import br.com.restapi.exception.PreconditionFailedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionTagTest {
+
+    @Test
+    void testTagNamesTheRepresentation() {
+        assertEquals("\"3-json\"", VersionTag.of(3L, MediaType.APPLICATION_JSON));
+        assertEquals("\"3-xml\"", VersionTag.of(3L, MediaType.APPLICATION_XML));
+        assertEquals("\"3-yaml\"", VersionTag.of(3L, MediaType.valueOf("application/x-yaml")));
+        assertEquals("\"3-protobuf\"", VersionTag.of(3L, MediaType.valueOf("application/x-protobuf")));
+    }
+
+    @Test
+    void testIfMatchTakesTheVersionOfAnyRepresentation() {
+        assertEquals(3L, VersionTag.parseIfMatch("\"3-xml\""));
+        assertEquals(3L, VersionTag.parseIfMatch("\"3-json\""));
+        assertEquals(3L, VersionTag.parseIfMatch("\"3\""));
+        assertEquals(4L, VersionTag.parseIfMatch("W/\"3-json\", \"4-cbor\""));
+        assertNull(VersionTag.parseIfMatch("*"));
+        assertThrows(PreconditionFailedException.class, () -> VersionTag.parseIfMatch("W/\"3-json\""));
+    }
+}
@@ -0,0 +1,60 @@
+package br.com.restapi.unittests.export;
+
+import br.com.restapi.export.ExportFormat;
+import br.com.restapi.export.RowWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportFormatTest {
+
+    private static final List<String> COLUMNS = List.of("id", "title", "price", "launchDate", "enabled");
+
+    private String export(ExportFormat format) throws Exception {
+        var out = new ByteArrayOutputStream();
+        try (RowWriter writer = format.open(out, COLUMNS, "books", "book")) {
+            writer.write(new Object[]{1L, "Clean Code", new BigDecimal("77.00"), new Date(0), true});
+            writer.write(new Object[]{2L, "Design \"Patterns\", 2nd", null, null, false});
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testNdjson() throws Exception {
+        assertEquals("""
+                {"id":1,"title":"Clean Code","price":77.00,"launchDate":"1970-01-01T00:00:00.000+00:00","enabled":true}
+                {"id":2,"title":"Design \\"Patterns\\", 2nd","price":null,"launchDate":null,"enabled":false}
+                """, export(ExportFormat.NDJSON));
+    }
+
+    @Test
+    void testCsv() throws Exception {
+        assertEquals("id,title,price,launchDate,enabled\r\n"
+                + "1,Clean Code,77.00,1970-01-01T00:00:00.000+00:00,true\r\n"
+                + "2,\"Design \"\"Patterns\"\", 2nd\",,,false\r\n", export(ExportFormat.CSV));
+    }
+
+    @Test
+    void testArrays() throws Exception {
+        assertTrue(export(ExportFormat.JSON).matches("^\\[\\{\"id\":1,.*},\\{\"id\":2,.*}]$"));
+        assertTrue(export(ExportFormat.XML).matches("^<books><book><id>1</id>.*</book><book><id>2</id>.*</book></books>$"));
+        String yaml = export(ExportFormat.YAML);
+        assertTrue(yaml.startsWith("---\n- id: 1\n  title: \"Clean Code\""), yaml);
+        assertTrue(yaml.contains("\n- id: 2\n"), yaml);
+    }
+
+    @Test
+    void testNegotiate() {
+        assertEquals(ExportFormat.NDJSON, ExportFormat.negotiate(null));
+        assertEquals(ExportFormat.NDJSON, ExportFormat.negotiate("*/*"));
+        assertEquals(ExportFormat.CSV, ExportFormat.negotiate("text/*"));
+        assertEquals(ExportFormat.YAML, ExportFormat.negotiate("application/x-yaml"));
+        assertEquals(ExportFormat.XML, ExportFormat.negotiate("text/csv;q=0.5, application/xml"));
+    }
+}
@@ -0,0 +1,61 @@
+package br.com.restapi.unittests.file;
+
+import br.com.restapi.file.ChecksumLog;
+import br.com.restapi.file.FileMetadata;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChecksumLogTest {
+
+    // sha-256 of "hello"
+    private static final String HELLO = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    @TempDir
+    Path dir;
+
+    private static FileMetadata metadata(String name, long size, long lastModified, String checksum) {
+        return new FileMetadata(name, size, "text/plain", lastModified, checksum);
+    }
+
+    @Test
+    void testChecksumsSurviveARestart() throws Exception {
+        Files.writeString(dir.resolve("a b.txt"), "hello");
+        Path log = dir.resolve(".checksums.log");
+        try (var checksums = new ChecksumLog(log)) {
+            checksums.record(metadata("a b.txt", 5, 1000, "0".repeat(64)));
+            checksums.record(metadata("a b.txt", 5, 2000, HELLO));
+        }
+
+        try (var checksums = new ChecksumLog(log)) {
+            assertEquals(HELLO, checksums.get(metadata("a b.txt", 5, 2000, null)));
+            // a file changed behind the log's back has to be read again
+            assertNull(checksums.get(metadata("a b.txt", 5, 3000, null)));
+            assertNull(checksums.get(metadata("a b.txt", 6, 2000, null)));
+            assertNull(checksums.get(metadata("c.txt", 5, 2000, null)));
+        }
+        assertEquals(1, Files.readAllLines(log).size());
+    }
+
+    @Test
+    void testCompactionDropsGoneFilesAndCutLines() throws Exception {
+        Files.writeString(dir.resolve("a.txt"), "hello");
+        Path log = dir.resolve(".checksums.log");
+        try (var checksums = new ChecksumLog(log)) {
+            checksums.record(metadata("a.txt", 5, 1000, HELLO));
+            checksums.record(metadata("gone.txt", 5, 1000, HELLO));
+        }
+        Files.writeString(log, "b.txt\t5\t1000\t2cf24d", StandardOpenOption.APPEND);
+
+        try (var checksums = new ChecksumLog(log)) {
+            assertEquals(HELLO, checksums.get(metadata("a.txt", 5, 1000, null)));
+            assertNull(checksums.get(metadata("gone.txt", 5, 1000, null)));
+        }
+        assertEquals(1, Files.readAllLines(log).size());
+    }
+}
@@ -0,0 +1,87 @@
+package br.com.restapi.unittests.file;
+
+import br.com.restapi.file.ContentAddressedStore;
+import br.com.restapi.file.StoredFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentAddressedStoreTest {
+
+    // sha-256 of "hello"
+    private static final String HELLO = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    @TempDir
+    Path dir;
+
+    private static ByteArrayInputStream content(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long blobCount() throws Exception {
+        try (Stream<Path> files = Files.walk(dir.resolve("blobs"))) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @Test
+    void testStoresIdenticalContentOnce() throws Exception {
+        try (var store = new ContentAddressedStore(dir)) {
+            assertEquals(new StoredFile("a.txt", 5, HELLO), store.store("a.txt", content("hello")));
+            assertEquals(new StoredFile("b.txt", 5, HELLO), store.store("b.txt", content("hello")));
+
+            Path blob = store.resolve("a.txt");
+            assertEquals(dir.resolve("blobs/2c/f2/" + HELLO), blob);
+            assertEquals(blob, store.resolve("b.txt"));
+            assertEquals("hello", Files.readString(blob));
+            assertEquals(1, blobCount());
+            assertNull(store.resolve("c.txt"));
+        }
+    }
+
+    @Test
+    void testReopeningKeepsNamesAndDropsUnreferencedBlobs() throws Exception {
+        try (var store = new ContentAddressedStore(dir)) {
+            store.store("a.txt", content("hello"));
+            store.store("a.txt", content("hello again"));
+            store.store("name with spaces\tand tab.txt", content("hello"));
+            store.store("b.txt", content("bye"));
+            store.store("b.txt", content("hello"));
+            assertEquals(3, blobCount());
+        }
+
+        try (var store = new ContentAddressedStore(dir)) {
+            assertEquals("hello again", Files.readString(store.resolve("a.txt")));
+            assertEquals("hello", Files.readString(store.resolve("name with spaces\tand tab.txt")));
+            assertEquals("hello", Files.readString(store.resolve("b.txt")));
+            // "bye" lost its only name
+            assertEquals(2, blobCount());
+            assertEquals(3, Files.readAllLines(dir.resolve("names.log")).size());
+        }
+    }
+
+    @Test
+    void testIgnoresLogLineCutShortByACrash() throws Exception {
+        try (var store = new ContentAddressedStore(dir)) {
+            store.store("a.txt", content("hello"));
+        }
+        Files.writeString(dir.resolve("names.log"), "b.txt\t2cf24dba", StandardOpenOption.APPEND);
+
+        try (var store = new ContentAddressedStore(dir)) {
+            assertNotNull(store.resolve("a.txt"));
+            assertNull(store.resolve("b.txt"));
+            store.store("c.txt", content("hello"));
+        }
+        try (var store = new ContentAddressedStore(dir)) {
+            assertNotNull(store.resolve("c.txt"));
+        }
+    }
+}
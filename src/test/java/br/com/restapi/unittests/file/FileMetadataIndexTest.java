@@ -0,0 +1,138 @@
+package br.com.restapi.unittests.file;
+
+import br.com.restapi.file.FileMetadata;
+import br.com.restapi.file.FileMetadataIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockServletContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileMetadataIndexTest {
+
+    // sha-256 of "hello"
+    private static final String HELLO = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    @TempDir
+    Path dir;
+
+    private FileMetadataIndex index;
+
+    private List<FileMetadata> checksummed;
+
+    private Deque<Runnable> pending;
+
+    @BeforeEach
+    void setup() {
+        checksummed = new CopyOnWriteArrayList<>();
+        pending = new ArrayDeque<>();
+        index = new FileMetadataIndex(new MockServletContext()::getMimeType, Runnable::run, checksummed::add);
+    }
+
+    @Test
+    void testPutDescribesTheFile() throws Exception {
+        Path file = Files.writeString(dir.resolve("hello.txt"), "hello");
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+
+        FileMetadata metadata = index.put("hello.txt", file, null);
+
+        // read through right away by the direct executor
+        FileMetadata complete = new FileMetadata("hello.txt", 5, "text/plain", lastModified, HELLO);
+        assertEquals(complete.withChecksum(null), metadata);
+        assertEquals(complete, index.get("hello.txt"));
+        assertEquals("\"" + HELLO + "\"", index.get("hello.txt").etag());
+        assertEquals(List.of(complete), checksummed);
+
+        // a known checksum is trusted, and names without a known type fall back to octet-stream
+        assertEquals("given", index.put("blob", file, "given").checksum());
+        assertEquals("application/octet-stream", index.get("blob").contentType());
+
+        assertNull(index.put("sub", Files.createDirectory(dir.resolve("sub")), null));
+        assertNull(index.get("sub"));
+        index.remove("hello.txt");
+        assertNull(index.get("hello.txt"));
+    }
+
+    @Test
+    void testRebuildIndexesEveryFile() throws Exception {
+        Map<String, Path> files = new HashMap<>();
+        for (int i = 0; i < 40; i++) {
+            files.put("file-" + i + ".json", Files.writeString(dir.resolve("file-" + i + ".json"), "hello"));
+        }
+        files.put("sub", Files.createDirectory(dir.resolve("sub")));
+
+        index.rebuild(files, metadata -> null).join();
+
+        for (int i = 0; i < 40; i++) {
+            FileMetadata metadata = index.get("file-" + i + ".json");
+            assertEquals(5, metadata.size());
+            assertEquals("application/json", metadata.contentType());
+            assertEquals(HELLO, metadata.checksum());
+        }
+        assertNull(index.get("sub"));
+        assertEquals(40, checksummed.size());
+    }
+
+    @Test
+    void testRebuildKeepsNewerUploads() throws Exception {
+        Path file = Files.writeString(dir.resolve("a.txt"), "hello");
+        FileMetadata uploaded = index.put("a.txt", file, "uploaded");
+
+        index.rebuild(Map.of("a.txt", file), metadata -> "scanned").join();
+
+        assertSame(uploaded, index.get("a.txt"));
+    }
+
+    @Test
+    void testKnownChecksumsAreNotReadAgain() throws Exception {
+        Path file = Files.writeString(dir.resolve("a.txt"), "hello");
+
+        index.rebuild(Map.of("a.txt", file), metadata -> "known").join();
+
+        assertEquals("known", index.get("a.txt").checksum());
+        assertTrue(checksummed.isEmpty());
+    }
+
+    @Test
+    void testMissIsTaggedBySizeAndMtimeUntilChecksummed() throws Exception {
+        index = new FileMetadataIndex(new MockServletContext()::getMimeType, pending::add, checksummed::add);
+        Path file = Files.writeString(dir.resolve("a.txt"), "hello");
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+
+        FileMetadata metadata = index.put("a.txt", file, null);
+
+        assertNull(metadata.checksum());
+        assertEquals("\"5-" + Long.toHexString(lastModified) + "\"", metadata.etag());
+        assertSame(metadata, index.get("a.txt"));
+
+        pending.pop().run();
+        assertEquals(HELLO, index.get("a.txt").checksum());
+        assertEquals(List.of(index.get("a.txt")), checksummed);
+    }
+
+    @Test
+    void testFileReplacedWhileQueuedKeepsItsOwnEntry() throws Exception {
+        index = new FileMetadataIndex(new MockServletContext()::getMimeType, pending::add, checksummed::add);
+        Path file = Files.writeString(dir.resolve("a.txt"), "hello");
+        index.put("a.txt", file, null);
+
+        Files.writeString(file, "hello, world");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+        FileMetadata uploaded = index.put("a.txt", file, "uploaded");
+        pending.pop().run();
+
+        assertSame(uploaded, index.get("a.txt"));
+        assertTrue(checksummed.isEmpty());
+    }
+}
@@ -0,0 +1,95 @@
+package br.com.restapi.unittests.file;
+
+import br.com.restapi.config.FileStorageConfig;
+import br.com.restapi.exception.FileStorageException;
+import br.com.restapi.exception.MyFileNotFoundException;
+import br.com.restapi.file.ChecksumLog;
+import br.com.restapi.file.Checksums;
+import br.com.restapi.file.FileMetadata;
+import br.com.restapi.service.FileStorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockServletContext;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileStorageServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private FileStorageService service;
+
+    @BeforeEach
+    void setup() {
+        var config = new FileStorageConfig();
+        config.setUploadDir(dir.toString());
+        service = new FileStorageService(config, new MockServletContext());
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        service.close();
+    }
+
+    @Test
+    void testConcurrentUploadsUnderOneNameAgreeWithTheDisk() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 20; round++) {
+                List<CompletableFuture<?>> uploads = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    // a different size per upload, so a mixed-up entry can't pass for a matching one
+                    byte[] content = "x".repeat(round * 8 + i + 1).getBytes(StandardCharsets.UTF_8);
+                    uploads.add(CompletableFuture.runAsync(() -> {
+                        try {
+                            service.storeFile("same.txt", new ByteArrayInputStream(content));
+                        } catch (Exception e) {
+                            throw new RuntimeException(e);
+                        }
+                    }, pool));
+                }
+                CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new)).join();
+
+                Path file = dir.resolve("same.txt");
+                FileMetadata metadata = service.loadMetadata("same.txt");
+                assertEquals(Files.size(file), metadata.size());
+                assertEquals(Files.getLastModifiedTime(file).toMillis(), metadata.lastModified());
+                assertEquals(Checksums.of(file), metadata.checksum());
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        service.close();
+        try (var log = new ChecksumLog(dir.resolve(".checksums.log"))) {
+            assertEquals(Checksums.of(dir.resolve("same.txt")), log.get(service.loadMetadata("same.txt")));
+        }
+    }
+
+    @Test
+    void testServiceFilesCannotBeUploadedOrDownloaded() throws Exception {
+        for (String name : List.of(".upload-123.tmp", ".checksums.log")) {
+            assertThrows(FileStorageException.class,
+                    () -> service.storeFile(name, new ByteArrayInputStream(new byte[]{1})));
+        }
+
+        // an upload in progress, and the log itself, are not files anyone can fetch
+        Path temp = Files.createTempFile(dir, ".upload-", ".tmp");
+        assertThrows(MyFileNotFoundException.class, () -> service.loadFile(temp.getFileName().toString()));
+        assertThrows(MyFileNotFoundException.class, () -> service.loadFile(".checksums.log"));
+        assertThrows(MyFileNotFoundException.class, () -> service.loadMetadata(".checksums.log"));
+    }
+}
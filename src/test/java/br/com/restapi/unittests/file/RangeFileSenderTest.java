@@ -0,0 +1,148 @@
+package br.com.restapi.unittests.file;
+
+import br.com.restapi.file.FileMetadata;
+import br.com.restapi.file.RangeFileSender;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RangeFileSenderTest {
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+
+    private FileMetadata metadata;
+
+    @BeforeEach
+    void setup() throws Exception {
+        file = Files.writeString(dir.resolve("data.txt"), "0123456789abcdefghij");
+        metadata = new FileMetadata("data.txt", 20, "text/plain", 1_700_000_000_000L, "c0ffee");
+    }
+
+    private MockHttpServletResponse get(String range, String ifRange) throws Exception {
+        var request = new MockHttpServletRequest("GET", "/api/file/v1/downloadFile/data.txt");
+        if (range != null) {
+            request.addHeader("Range", range);
+        }
+        if (ifRange != null) {
+            request.addHeader("If-Range", ifRange);
+        }
+        var response = new MockHttpServletResponse();
+        RangeFileSender.send(file, metadata, request, response);
+        return response;
+    }
+
+    @Test
+    void testWholeFile() throws Exception {
+        var response = get(null, null);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertEquals("\"c0ffee\"", response.getHeader("ETag"));
+        assertEquals(1_700_000_000_000L, response.getDateHeader("Last-Modified"));
+        assertEquals(20, response.getContentLengthLong());
+        assertEquals("0123456789abcdefghij", response.getContentAsString());
+    }
+
+    @Test
+    void testSingleRanges() throws Exception {
+        var response = get("bytes=2-5", null);
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("bytes 2-5/20", response.getHeader("Content-Range"));
+        assertEquals(4, response.getContentLengthLong());
+        assertEquals("2345", response.getContentAsString());
+
+        response = get("bytes=-3", null);
+        assertEquals("bytes 17-19/20", response.getHeader("Content-Range"));
+        assertEquals("hij", response.getContentAsString());
+
+        // an open range, and one running past the end, stop at the last byte
+        assertEquals("fghij", get("bytes=15-", null).getContentAsString());
+        assertEquals("ij", get("bytes=18-100", null).getContentAsString());
+    }
+
+    @Test
+    void testMultipleRanges() throws Exception {
+        var response = get("bytes=0-1, 10-12", null);
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        String contentType = response.getContentType();
+        assertTrue(contentType.startsWith("multipart/byteranges; boundary="));
+        String boundary = contentType.substring(contentType.indexOf('=') + 1);
+        String body = response.getContentAsString(StandardCharsets.US_ASCII);
+        assertEquals("\r\n--" + boundary + "\r\nContent-Type: text/plain\r\nContent-Range: bytes 0-1/20\r\n\r\n01"
+                + "\r\n--" + boundary + "\r\nContent-Type: text/plain\r\nContent-Range: bytes 10-12/20\r\n\r\nabc"
+                + "\r\n--" + boundary + "--\r\n", body);
+        assertEquals(body.length(), response.getContentLengthLong());
+    }
+
+    @Test
+    void testIfRangeAndUnsatisfiableRanges() throws Exception {
+        String etag = get(null, null).getHeader("ETag");
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, get("bytes=0-1", etag).getStatus());
+
+        // a stale or weak validator means the client's partial copy is of something else: send it all
+        var response = get("bytes=0-1", "\"stale\"");
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(20, response.getContentAsByteArray().length);
+        assertEquals(HttpServletResponse.SC_OK, get("bytes=0-1", "W/" + etag).getStatus());
+
+        response = get("bytes=20-30", null);
+        assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatus());
+        assertEquals("bytes */20", response.getHeader("Content-Range"));
+        assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE,
+                get("bytes=0-19,0-19", null).getStatus());
+
+        // a unit other than bytes is ignored
+        assertEquals(HttpServletResponse.SC_OK, get("items=0-1", null).getStatus());
+    }
+
+    @Test
+    void testHandsLargeBodiesToSendfile() throws Exception {
+        Files.write(file, new byte[100_000]);
+        metadata = new FileMetadata("data.txt", 100_000, "text/plain", 1_700_000_000_000L, "c0ffee");
+        var request = new MockHttpServletRequest("GET", "/api/file/v1/downloadFile/data.txt");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=1000-");
+        var response = new MockHttpServletResponse();
+
+        RangeFileSender.send(file, metadata, request, response);
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals(99_000, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(file.toAbsolutePath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(1000L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(100_000L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+    }
+
+    @Test
+    void testAnswersConditionalRequestsWithoutTheFile() throws Exception {
+        Files.delete(file);
+
+        var request = new MockHttpServletRequest("GET", "/api/file/v1/downloadFile/data.txt");
+        request.addHeader("If-None-Match", "\"c0ffee\"");
+        var response = new MockHttpServletResponse();
+        RangeFileSender.send(file, metadata, request, response);
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals("\"c0ffee\"", response.getHeader("ETag"));
+
+        request = new MockHttpServletRequest("GET", "/api/file/v1/downloadFile/data.txt");
+        request.addHeader("If-Modified-Since", 1_700_000_000_000L);
+        response = new MockHttpServletResponse();
+        RangeFileSender.send(file, metadata, request, response);
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+}
@@ -0,0 +1,110 @@
+package br.com.restapi.unittests.file;
+
+import br.com.restapi.config.FileStorageConfig;
+import br.com.restapi.file.StoredFile;
+import br.com.restapi.file.StreamingMultipartParser;
+import br.com.restapi.service.FileStorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingMultipartParserTest {
+
+    private static final String BOUNDARY = "----test-boundary";
+
+    @TempDir
+    Path dir;
+
+    private FileStorageService service;
+
+    private StreamingMultipartParser parser;
+
+    @BeforeEach
+    void setup() {
+        var config = new FileStorageConfig();
+        config.setUploadDir(dir.toString());
+        service = new FileStorageService(config, new MockServletContext());
+
+        var properties = new MultipartProperties();
+        properties.setMaxFileSize(DataSize.ofBytes(64));
+        properties.setMaxRequestSize(DataSize.ofKilobytes(1));
+        parser = new StreamingMultipartParser(properties);
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        service.close();
+    }
+
+    private MockHttpServletRequest upload(String field, String fileName, String content) {
+        String body = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"note\"\r\n\r\nignored\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + field + "\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: text/plain\r\n\r\n"
+                + content + "\r\n"
+                + "--" + BOUNDARY + "--\r\n";
+        var request = new MockHttpServletRequest("POST", "/api/file/v1/uploadFile");
+        request.setContentType("multipart/form-data; boundary=" + BOUNDARY);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private String[] storedNames() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            // the service's own checksum log lives next to the files
+            return files.map(path -> path.getFileName().toString()).filter(name -> !name.equals(".checksums.log"))
+                    .sorted().toArray(String[]::new);
+        }
+    }
+
+    @Test
+    void testStreamsFilePartIntoStorage() throws Exception {
+        StoredFile stored = parser.readFile(upload("file", "notes.txt", "hello, world"), "file",
+                (fileName, contentType, content) -> {
+                    assertEquals("text/plain", contentType);
+                    return service.storeFile(fileName, content);
+                });
+
+        assertEquals(new StoredFile("notes.txt", 12,
+                "09ca7e4eaa6e8ae9c7d261167129184883644d07dfba7cbfbc4c8a2e08360d5b"), stored);
+        assertEquals("hello, world", Files.readString(dir.resolve("notes.txt")));
+        assertArrayEquals(new String[]{"notes.txt"}, storedNames());
+    }
+
+    @Test
+    void testRejectsOversizedFileWhileStreaming() throws Exception {
+        var request = upload("file", "big.txt", "x".repeat(65));
+
+        assertThrows(MaxUploadSizeExceededException.class,
+                () -> parser.readFile(request, "file", (fileName, contentType, content) -> service.storeFile(fileName, content)));
+        // neither the file nor its partial temp copy is left behind
+        assertArrayEquals(new String[0], storedNames());
+    }
+
+    @Test
+    void testMissingPartAndReplacement() throws Exception {
+        assertNull(parser.readFile(upload("other", "notes.txt", "hello"), "file",
+                (fileName, contentType, content) -> service.storeFile(fileName, content)));
+
+        parser.readFile(upload("file", "notes.txt", "first"), "file",
+                (fileName, contentType, content) -> service.storeFile(fileName, content));
+        parser.readFile(upload("file", "notes.txt", "second"), "file",
+                (fileName, contentType, content) -> service.storeFile(fileName, content));
+        assertEquals("second", Files.readString(dir.resolve("notes.txt")));
+        assertArrayEquals(new String[]{"notes.txt"}, storedNames());
+    }
+}
@@ -0,0 +1,88 @@
+package br.com.restapi.unittests.file;
+
+import br.com.restapi.config.FileStorageConfig;
+import br.com.restapi.file.UploadExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UploadExecutorTest {
+
+    private UploadExecutor executor;
+
+    @BeforeEach
+    void setup() {
+        var config = new FileStorageConfig();
+        config.setUploadThreads(6);
+        config.setUploadParallelism(3);
+        executor = new UploadExecutor(config, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void testResultsKeepItemOrder() {
+        List<Integer> items = IntStream.range(0, 20).boxed().toList();
+
+        var futures = executor.submitAll(items, i -> {
+            sleep(20 - i);
+            return "file-" + i;
+        });
+
+        assertEquals(IntStream.range(0, 20).mapToObj(i -> "file-" + i).toList(),
+                futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    @Test
+    void testCapsTasksInFlightPerRequest() {
+        var running = new AtomicInteger();
+        var peak = new AtomicInteger();
+
+        var futures = executor.submitAll(IntStream.range(0, 12).boxed().toList(), i -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(10);
+            running.decrementAndGet();
+            return i;
+        });
+        futures.forEach(CompletableFuture::join);
+
+        // the pool has six threads, this request may use three of them
+        assertTrue(peak.get() <= 3, "peak was " + peak.get());
+        assertTrue(peak.get() > 1, "tasks never overlapped");
+    }
+
+    @Test
+    void testFailuresStayWithTheirItem() {
+        var futures = executor.submitAll(List.of("a.txt", "bad", "c.txt"), name -> {
+            if (name.equals("bad")) {
+                throw new IllegalStateException("disk full");
+            }
+            return name;
+        });
+
+        assertEquals("a.txt", futures.get(0).join());
+        var failure = assertThrows(CompletionException.class, () -> futures.get(1).join());
+        assertEquals("disk full", failure.getCause().getMessage());
+        assertEquals("c.txt", futures.get(2).join());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package br.com.restapi.unittests.mapper;
+
+import br.com.restapi.mapper.BookMapper;
+import br.com.restapi.model.Book;
+import br.com.restapi.unittests.mapper.mocks.MockBook;
+import br.com.restapi.vo.v1.BookVO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BookMapperTest {
+    MockBook inputObject;
+
+    @BeforeEach
+    public void setUp() {
+        inputObject = new MockBook();
+    }
+
+    @Test
+    public void parseEntityToVOTest() {
+        Book entity = inputObject.mockEntity(5);
+        entity.setLaunchDate(Date.valueOf("2017-11-29"));
+
+        BookVO output = BookMapper.toVO(entity);
+
+        assertEquals(Long.valueOf(5L), output.getKey());
+        assertEquals("Some Author5", output.getAuthor());
+        assertEquals("Some Title5", output.getTitle());
+        assertEquals(25D, output.getPrice());
+        assertEquals(java.util.Date.class, output.getLaunchDate().getClass());
+        assertEquals(entity.getLaunchDate().getTime(), output.getLaunchDate().getTime());
+    }
+
+    @Test
+    public void parseVOToEntityTest() {
+        BookVO vo = inputObject.mockVO(5);
+
+        Book output = BookMapper.toEntity(vo);
+
+        assertEquals(Long.valueOf(5L), output.getId());
+        assertEquals("Some Author5", output.getAuthor());
+        assertEquals("Some Title5", output.getTitle());
+        assertEquals(25D, output.getPrice());
+        assertEquals(vo.getLaunchDate(), output.getLaunchDate());
+        assertNotSame(vo.getLaunchDate(), output.getLaunchDate());
+    }
+}
@@ -0,0 +1,45 @@
+package br.com.restapi.unittests.mapper;
+
+import br.com.restapi.mapper.DozerMapper;
+import br.com.restapi.mapper.PersonMapper;
+import br.com.restapi.model.Person;
+import br.com.restapi.unittests.mapper.mocks.MockPerson;
+import br.com.restapi.vo.v1.PersonVO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PersonMapperTest {
+    MockPerson inputObject;
+
+    @BeforeEach
+    public void setUp() {
+        inputObject = new MockPerson();
+    }
+
+    @Test
+    public void parseEntityToVOTest() {
+        Person entity = inputObject.mockEntity(3);
+        entity.setEnabled(true);
+
+        assertEquals(DozerMapper.parseObject(entity, PersonVO.class), PersonMapper.toVO(entity));
+    }
+
+    @Test
+    public void parseVOToEntityTest() {
+        PersonVO vo = inputObject.mockVO(3);
+        vo.setEnabled(false);
+
+        assertEquals(DozerMapper.parseObject(vo, Person.class), PersonMapper.toEntity(vo));
+    }
+
+    @Test
+    public void parseEntityListToVOListTest() {
+        List<Person> entities = inputObject.mockEntityList();
+
+        assertEquals(DozerMapper.parseListObjects(entities, PersonVO.class), PersonMapper.toVOList(entities));
+    }
+}
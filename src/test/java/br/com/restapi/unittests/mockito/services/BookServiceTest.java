@@ -1,12 +1,23 @@
 package br.com.restapi.unittests.mockito.services;
 
 
+import br.com.restapi.cache.CountCache;
+import br.com.restapi.config.BatchConfig;
+import br.com.restapi.export.TableExporter;
+import br.com.restapi.cache.VOCache;
+import br.com.restapi.exception.BatchTooLargeException;
+import br.com.restapi.exception.InvalidPatchException;
+import br.com.restapi.exception.PreconditionFailedException;
 import br.com.restapi.exception.RequiredObjectIsNullException;
+import br.com.restapi.mapper.BookMapper;
 import br.com.restapi.model.Book;
 import br.com.restapi.repository.BookRepository;
 import br.com.restapi.service.BookService;
 import br.com.restapi.unittests.mapper.mocks.MockBook;
+import br.com.restapi.vo.v1.BatchItemResultVO;
 import br.com.restapi.vo.v1.BookVO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
@@ -14,8 +25,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,12 +51,37 @@ class BookServiceTest {
     @Mock
     BookRepository repository;
 
+    @Mock
+    CountCache countCache;
+
+    @Spy
+    VOCache<BookVO> cache = newCache();
+
+    @Spy
+    BatchConfig batchConfig = new BatchConfig();
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @Mock
+    TableExporter exporter;
+
+    @Spy
+    ObjectMapper objectMapper = new ObjectMapper();
+
     @BeforeEach
     void setup() throws Exception{
         input = new MockBook();
+        cache = newCache();
+        batchConfig = new BatchConfig();
+        objectMapper = new ObjectMapper();
         MockitoAnnotations.openMocks(this);
     }
 
+    private static VOCache<BookVO> newCache() {
+        return new VOCache<>("book.vo", 100, Duration.ofMinutes(1), BookMapper::copy, new SimpleMeterRegistry());
+    }
+
     @Test
     void testFindById(){
         Book book = input.mockEntity(1);
@@ -57,6 +99,23 @@ class BookServiceTest {
 
     }
 
+    @Test
+    void testFindByIdIsCached(){
+        Book entity = input.mockEntity(1);
+        when(repository.findById(1L)).thenReturn(Optional.of(entity));
+
+        var first = service.findById(1L);
+        var second = service.findById(1L);
+
+        assertNotSame(first, second);
+        assertEquals(1, second.getLinks().toList().size());
+        verify(repository, times(1)).findById(1L);
+
+        service.delete(1L);
+        service.findById(1L);
+        verify(repository, times(2)).findById(1L);
+    }
+
     @Test
     void testCreate(){
         Book entity = input.mockEntity(1);
@@ -89,9 +148,9 @@ class BookServiceTest {
         vo.setKey(1L);
 
         when(repository.findById(1L)).thenReturn(Optional.of(entity));
-        when(repository.save(entity)).thenReturn(persisted);
+        when(repository.saveAndFlush(entity)).thenReturn(persisted);
 
-        var result = service.update(vo);
+        var result = service.update(vo, null);
 
         assertNotNull(result);
         assertNotNull(result.getKey());
@@ -131,4 +190,98 @@ class BookServiceTest {
 
         assertTrue(actualMessage.contains(expectedMessage));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSaveBatch(){
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(repository.findAllById(anyIterable())).thenReturn(List.of(input.mockEntity(1)));
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Book> entities = invocation.getArgument(0);
+            entities.stream().filter(entity -> entity.getId() == null).forEach(entity -> entity.setId(20L));
+            return entities;
+        });
+
+        BookVO created = input.mockVO(2);
+        created.setKey(null);
+        BookVO incomplete = input.mockVO(3);
+        incomplete.setKey(null);
+        incomplete.setPrice(null);
+        BookVO updated = input.mockVO(1);
+        updated.setTitle("Updated");
+
+        var results = service.saveBatch(Arrays.asList(created, incomplete, updated));
+
+        assertEquals(BatchItemResultVO.CREATED, results.get(0).getStatus());
+        assertEquals(20L, results.get(0).getId());
+        assertEquals("Missing required fields: price", results.get(1).getMessage());
+        assertEquals(BatchItemResultVO.UPDATED, results.get(2).getStatus());
+        assertEquals(1L, results.get(2).getId());
+    }
+
+    @Test
+    void testSaveBatchTooLarge(){
+        batchConfig.setMaxItems(2);
+
+        assertThrows(BatchTooLargeException.class, () -> service.saveBatch(Collections.nCopies(3, input.mockVO(1))));
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    void testUpdateIfVersion(){
+        Book entity = input.mockEntity(1);
+        entity.setVersion(3L);
+        Book stored = input.mockEntity(1);
+        stored.setTitle("Other Title");
+        stored.setVersion(4L);
+        BookVO vo = input.mockVO(1);
+        vo.setTitle("Other Title");
+        when(repository.findById(1L)).thenReturn(Optional.of(entity));
+        when(repository.saveAndFlush(entity)).thenReturn(stored);
+
+        var result = service.update(vo, 3L);
+
+        assertEquals(4L, result.getVersion());
+        assertEquals("Other Title", result.getTitle());
+        assertTrue(result.toString().contains("links: [</api/book/v1/1>;rel=\"self\"]"));
+    }
+
+    @Test
+    void testUpdateIfVersionConflict(){
+        Book entity = input.mockEntity(1);
+        entity.setVersion(4L);
+        when(repository.findById(1L)).thenReturn(Optional.of(entity));
+
+        assertThrows(PreconditionFailedException.class, () -> service.update(input.mockVO(1), 3L));
+        verify(repository, never()).saveAndFlush(any());
+        verify(cache, never()).invalidate(anyLong());
+    }
+
+    @Test
+    void testPatch() throws Exception {
+        Book entity = input.mockEntity(1);
+        entity.setVersion(2L);
+        given(repository.findById(1L)).willReturn(Optional.of(entity));
+        given(repository.saveAndFlush(entity)).willReturn(entity);
+
+        var result = service.patch(1L, objectMapper.readTree("{\"price\":19.9}"), 2L);
+
+        assertEquals(19.9D, result.getPrice());
+        assertEquals("Some Title1", result.getTitle());
+        assertEquals(19.9D, entity.getPrice());
+        assertTrue(result.toString().contains("links: [</api/book/v1/1>;rel=\"self\"]"));
+        verify(cache).invalidate(1L);
+    }
+
+    @Test
+    void testPatchRejectsInvalidPatch() throws Exception {
+        Book entity = input.mockEntity(1);
+        entity.setVersion(2L);
+        given(repository.findById(1L)).willReturn(Optional.of(entity));
+
+        assertThrows(InvalidPatchException.class, () -> service.patch(1L, objectMapper.readTree("{\"title\":null}"), null));
+        assertThrows(InvalidPatchException.class, () -> service.patch(1L, objectMapper.readTree("{\"price\":\"cheap\"}"), null));
+        assertThrows(PreconditionFailedException.class, () -> service.patch(1L, objectMapper.readTree("{}"), 3L));
+        verify(repository, never()).saveAndFlush(any());
+    }
+}
@@ -1,12 +1,28 @@
 package br.com.restapi.unittests.mockito.services;
 
 
+import br.com.restapi.cache.CountCache;
+import br.com.restapi.config.BatchConfig;
+import br.com.restapi.etag.EtagIndex;
+import br.com.restapi.export.TableExporter;
+import br.com.restapi.cache.VOCache;
+import br.com.restapi.exception.BatchTooLargeException;
+import br.com.restapi.exception.InvalidBulkRequestException;
+import br.com.restapi.exception.InvalidPatchException;
+import br.com.restapi.exception.PreconditionFailedException;
 import br.com.restapi.exception.RequiredObjectIsNullException;
+import br.com.restapi.mapper.PersonMapper;
 import br.com.restapi.model.Person;
 import br.com.restapi.repository.PersonRepository;
+import br.com.restapi.search.PersonNameIndex;
 import br.com.restapi.service.PersonService;
 import br.com.restapi.unittests.mapper.mocks.MockPerson;
+import br.com.restapi.util.KeysetCursor;
+import br.com.restapi.vo.v1.BatchItemResultVO;
+import br.com.restapi.vo.v1.BulkRequestVO;
 import br.com.restapi.vo.v1.PersonVO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
@@ -14,12 +30,26 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.hateoas.IanaLinkRelations;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -33,12 +63,43 @@ class PersonServiceTest {
     @Mock
     PersonRepository repository;
 
+    @Mock
+    CountCache countCache;
+
+    @Spy
+    VOCache<PersonVO> cache = newCache();
+
+    @Spy
+    BatchConfig batchConfig = new BatchConfig();
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @Mock
+    TableExporter exporter;
+
+    @Mock
+    EtagIndex etagIndex;
+
+    @Spy
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    PersonNameIndex nameIndex;
+
     @BeforeEach
     void setup() throws Exception{
         input = new MockPerson();
+        cache = newCache();
+        batchConfig = new BatchConfig();
+        objectMapper = new ObjectMapper();
         MockitoAnnotations.openMocks(this);
     }
 
+    private static VOCache<PersonVO> newCache() {
+        return new VOCache<>("person.vo", 100, Duration.ofMinutes(1), PersonMapper::copy, new SimpleMeterRegistry());
+    }
+
     @Test
     void testFindById(){
         Person person = input.mockEntity(1);
@@ -55,6 +116,23 @@ class PersonServiceTest {
         assertEquals("Female",result.getGender());
     }
 
+    @Test
+    void testFindByIdIsCached(){
+        Person entity = input.mockEntity(1);
+        when(repository.findById(1L)).thenReturn(Optional.of(entity));
+
+        var first = service.findById(1L);
+        var second = service.findById(1L);
+
+        assertNotSame(first, second);
+        assertEquals(1, second.getLinks().toList().size());
+        verify(repository, times(1)).findById(1L);
+
+        service.delete(1L);
+        service.findById(1L);
+        verify(repository, times(2)).findById(1L);
+    }
+
     @Test
     void testCreate(){
         Person entity = input.mockEntity(1);
@@ -86,9 +164,9 @@ class PersonServiceTest {
         vo.setKey(1L);
 
         when(repository.findById(1L)).thenReturn(Optional.of(entity));
-        when(repository.save(entity)).thenReturn(persisted);
+        when(repository.saveAndFlush(entity)).thenReturn(persisted);
 
-        var result = service.update(vo);
+        var result = service.update(vo, null);
 
         assertNotNull(result);
         assertNotNull(result.getKey());
@@ -128,4 +206,181 @@ class PersonServiceTest {
 
         assertTrue(actualMessage.contains(expectedMessage));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindAllAfter(){
+        List<Person> people = input.mockEntityList().subList(0, 3);
+        when(repository.findPersonsAfter(eq("First Name Test0"), eq(0L), any(Pageable.class))).thenReturn(people);
+
+        var cursor = new KeysetCursor("First Name Test0", 0L).encode();
+        var result = service.findAllAfter(cursor, 2, Sort.Direction.ASC);
+
+        assertEquals(2, result.getContent().size());
+        assertTrue(result.getContent().iterator().next().toString()
+                .contains("links: [</api/person/v1/0>;rel=\"self\"]"));
+        var next = result.getLink(IanaLinkRelations.NEXT).orElseThrow().getHref();
+        assertTrue(next.contains("after=" + new KeysetCursor("First Name Test1", 1L).encode()));
+    }
+
+    @Test
+    void testSaveBatch(){
+        batchConfig.setChunkSize(2);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(repository.findAllById(anyIterable())).thenReturn(List.of(input.mockEntity(1)));
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Person> entities = invocation.getArgument(0);
+            entities.stream().filter(entity -> entity.getId() == null).forEach(entity -> entity.setId(20L));
+            return entities;
+        });
+
+        PersonVO created = input.mockVO(2);
+        created.setKey(null);
+        created.setEnabled(true);
+        PersonVO incomplete = input.mockVO(3);
+        incomplete.setKey(null);
+        PersonVO updated = input.mockVO(1);
+        updated.setFirstName("Updated");
+        PersonVO unknown = input.mockVO(9);
+
+        var results = service.saveBatch(Arrays.asList(created, incomplete, updated, null, unknown));
+
+        assertEquals(5, results.size());
+        assertEquals(BatchItemResultVO.CREATED, results.get(0).getStatus());
+        assertEquals(20L, results.get(0).getId());
+        assertEquals(BatchItemResultVO.FAILED, results.get(1).getStatus());
+        assertEquals("Missing required fields: enabled", results.get(1).getMessage());
+        assertEquals(BatchItemResultVO.UPDATED, results.get(2).getStatus());
+        assertEquals(1L, results.get(2).getId());
+        assertEquals(BatchItemResultVO.FAILED, results.get(3).getStatus());
+        assertEquals(BatchItemResultVO.FAILED, results.get(4).getStatus());
+        assertEquals(4, results.get(4).getIndex());
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(countCache).invalidate(anyString());
+    }
+
+    @Test
+    void testSaveBatchTooLarge(){
+        batchConfig.setMaxItems(2);
+
+        assertThrows(BatchTooLargeException.class, () -> service.saveBatch(Collections.nCopies(3, input.mockVO(1))));
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    void testDisablePersonsInChunks(){
+        batchConfig.setChunkSize(2);
+        when(repository.disablePersons(anyList())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+        var request = new BulkRequestVO();
+        request.setIds(LongStream.rangeClosed(1, 5).boxed().toList());
+        var result = service.disablePersons(request);
+
+        assertEquals(5, result.getAffected());
+        verify(repository, times(3)).disablePersons(anyList());
+        verify(repository, never()).findById(anyLong());
+        verify(repository, never()).findIdsByFilter(any(), any(), any());
+    }
+
+    @Test
+    void testDeletePersonsByFilter(){
+        when(repository.findIdsByFilterAmong(List.of(1L, 3L, 4L), "ar", "Male")).thenReturn(List.of(1L, 3L));
+        when(repository.deletePersons(List.of(1L, 3L))).thenReturn(2);
+
+        var request = new BulkRequestVO();
+        request.setFirstName("ar");
+        request.setGender("Male");
+        request.setIds(List.of(1L, 3L, 4L));
+        var result = service.deletePersons(request);
+
+        assertEquals(2, result.getAffected());
+        verify(nameIndex).remove(1L);
+        verify(nameIndex).remove(3L);
+        verify(etagIndex).touchAll("person", List.of(1L, 3L));
+        verify(countCache).invalidate(anyString());
+    }
+
+    @Test
+    void testBulkFilterIsCapped(){
+        batchConfig.setMaxItems(2);
+        when(repository.findIdsByFilter(null, "Female", PageRequest.of(0, 3))).thenReturn(List.of(1L, 2L, 3L));
+
+        var request = new BulkRequestVO();
+        request.setGender("Female");
+
+        assertThrows(BatchTooLargeException.class, () -> service.disablePersons(request));
+        verify(repository, never()).disablePersons(anyList());
+        verifyNoInteractions(etagIndex);
+    }
+
+    @Test
+    void testBulkWithoutCriteria(){
+        assertThrows(InvalidBulkRequestException.class, () -> service.deletePersons(new BulkRequestVO()));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testUpdateIfVersion(){
+        Person entity = input.mockEntity(1);
+        entity.setEnabled(false);
+        entity.setVersion(3L);
+        when(repository.findById(1L)).thenReturn(Optional.of(entity));
+        when(repository.saveAndFlush(entity)).thenAnswer(invocation -> {
+            entity.setVersion(4L);
+            return entity;
+        });
+        // the body leaves enabled out, the answer reports what is stored
+        PersonVO vo = input.mockVO(1);
+        vo.setEnabled(null);
+
+        var result = service.update(vo, 3L);
+
+        assertEquals(4L, result.getVersion());
+        assertEquals(false, result.getEnabled());
+        assertEquals("First Name Test1", result.getFirstName());
+        assertTrue(result.toString().contains("links: [</api/person/v1/1>;rel=\"self\"]"));
+    }
+
+    @Test
+    void testUpdateIfVersionConflict(){
+        Person entity = input.mockEntity(1);
+        entity.setVersion(4L);
+        when(repository.findById(1L)).thenReturn(Optional.of(entity));
+
+        assertThrows(PreconditionFailedException.class, () -> service.update(input.mockVO(1), 3L));
+        verify(repository, never()).saveAndFlush(any());
+        verify(cache, never()).invalidate(anyLong());
+    }
+
+    @Test
+    void testPatch() throws Exception {
+        Person entity = input.mockEntity(1);
+        entity.setEnabled(true);
+        entity.setVersion(2L);
+        when(repository.findById(1L)).thenReturn(Optional.of(entity));
+        when(repository.saveAndFlush(entity)).thenReturn(entity);
+
+        var result = service.patch(1L, objectMapper.readTree("{\"address\":\"Elsewhere\"}"), 2L);
+
+        assertEquals("Elsewhere", result.getAddress());
+        assertEquals("First Name Test1", result.getFirstName());
+        assertEquals("Last Name Test1", result.getLastName());
+        assertEquals("Elsewhere", entity.getAddress());
+        assertTrue(result.toString().contains("links: [</api/person/v1/1>;rel=\"self\"]"));
+        verify(cache).invalidate(1L);
+    }
+
+    @Test
+    void testPatchRejectsInvalidPatch() throws Exception {
+        Person entity = input.mockEntity(1);
+        entity.setVersion(2L);
+        when(repository.findById(1L)).thenReturn(Optional.of(entity));
+
+        assertThrows(InvalidPatchException.class, () -> service.patch(1L, objectMapper.readTree("[]"), null));
+        assertThrows(InvalidPatchException.class, () -> service.patch(1L, objectMapper.readTree("{\"last_name\":null}"), null));
+        assertThrows(InvalidPatchException.class, () -> service.patch(1L, objectMapper.readTree("{\"id\":2}"), null));
+        assertThrows(InvalidPatchException.class, () -> service.patch(1L, objectMapper.readTree("{\"nickname\":\"x\"}"), null));
+        assertThrows(PreconditionFailedException.class, () -> service.patch(1L, objectMapper.readTree("{}"), 1L));
+        verify(repository, never()).saveAndFlush(any());
+    }
+}
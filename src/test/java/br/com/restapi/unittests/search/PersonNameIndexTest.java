@@ -0,0 +1,210 @@
+package br.com.restapi.unittests.search;
+
+import br.com.restapi.search.PersonNameIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PersonNameIndexTest {
+    private PersonNameIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new PersonNameIndex(mock(JdbcTemplate.class), true);
+        index.put(1L, "Alison");
+        index.put(2L, "Leandro");
+        index.put(3L, "Ayrton");
+        index.put(4L, "alice");
+        index.put(5L, "Marcos");
+    }
+
+    @Test
+    void testSearchIsCaseInsensitive() {
+        var result = index.search("ALI", PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "firstName")));
+
+        assertEquals(List.of(4L, 1L), result.getContent());
+        assertEquals(2, result.getTotalElements());
+    }
+
+    @Test
+    void testShortAndLongQueries() {
+        var byName = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "firstName"));
+
+        assertEquals(List.of(1L, 3L, 2L), index.search("n", byName).getContent());
+        assertEquals(List.of(3L, 2L, 5L), index.search("r", byName).getContent());
+        assertEquals(List.of(2L), index.search("andro", byName).getContent());
+        assertEquals(List.of(), index.search("andre", byName).getContent());
+    }
+
+    @Test
+    void testPagingAndDirection() {
+        var firstPage = index.search("a", PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "firstName")));
+        var secondPage = index.search("a", PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "firstName")));
+
+        assertEquals(List.of(5L, 2L), firstPage.getContent());
+        assertEquals(List.of(3L, 1L), secondPage.getContent());
+        assertEquals(5, secondPage.getTotalElements());
+    }
+
+    @Test
+    void testUpdateAndRemove() {
+        index.put(1L, "Bruno");
+        index.remove(4L);
+
+        var byName = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "firstName"));
+        assertTrue(index.search("ali", byName).getContent().isEmpty());
+        assertEquals(List.of(1L), index.search("brun", byName).getContent());
+    }
+
+    @Test
+    void testPeopleSharingANameArePagedById() {
+        index.put(6L, "ALISON");
+        index.put(7L, "alison");
+
+        var firstPage = index.search("lis", PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "firstName")));
+        var secondPage = index.search("lis", PageRequest.of(1, 2, Sort.by(Sort.Direction.ASC, "firstName")));
+        var descending = index.search("lis", PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "firstName")));
+
+        assertEquals(List.of(1L, 6L), firstPage.getContent());
+        assertEquals(List.of(7L), secondPage.getContent());
+        assertEquals(3, secondPage.getTotalElements());
+        assertEquals(List.of(7L, 6L, 1L), descending.getContent());
+    }
+
+    @Test
+    void testTrigramsFoundApartDoNotMatch() {
+        // holds "abc", "bca" and "cab", but never "abcab"
+        index.put(8L, "abcxbcaxcab");
+        index.put(9L, "zabcabz");
+
+        var byName = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "firstName"));
+        var result = index.search("abcab", byName);
+        assertEquals(List.of(9L), result.getContent());
+        assertEquals(1, result.getTotalElements());
+    }
+
+    @Test
+    void testNamesLeavingAndComingBack() {
+        var byName = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "firstName"));
+        for (long id = 100; id < 200; id++) {
+            index.put(id, "Name" + id);
+        }
+        for (long id = 100; id < 200; id++) {
+            index.remove(id);
+        }
+        assertEquals(0, index.search("name", byName).getTotalElements());
+
+        // freed slots are handed to new names, which must still come back in name order
+        index.put(10L, "Zoe");
+        index.put(11L, "Bea");
+        index.put(12L, "Zelia");
+        assertEquals(List.of(4L, 11L, 2L, 12L, 10L), index.search("e", byName).getContent());
+    }
+
+    @Test
+    void testRandomWritesAgreeWithAScan() {
+        index = new PersonNameIndex(mock(JdbcTemplate.class), true);
+        Random random = new Random(7);
+        String[] names = {"Ana", "Anabel", "Bruna", "Bruno", "Carla", "Caroline", "Daniel", "Daniela", "Marcos", "Mariana"};
+        Map<Long, String> people = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            long id = random.nextInt(3_000);
+            if (random.nextInt(4) == 0) {
+                index.remove(id);
+                people.remove(id);
+            } else {
+                String name = names[random.nextInt(names.length)] + (random.nextBoolean() ? "" : random.nextInt(50));
+                index.put(id, name);
+                people.put(id, name.toLowerCase());
+            }
+        }
+
+        for (String query : List.of("a", "an", "bru", "carol", "iel", "na1", "mariana4")) {
+            List<Long> expected = people.entrySet().stream()
+                    .filter(person -> person.getValue().contains(query))
+                    .sorted(Map.Entry.<Long, String>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            var page = index.search(query, PageRequest.of(3, 25, Sort.by(Sort.Direction.ASC, "firstName")));
+
+            assertEquals(expected.size(), page.getTotalElements(), query);
+            assertEquals(expected.subList(Math.min(75, expected.size()), Math.min(100, expected.size())),
+                    page.getContent(), query);
+        }
+    }
+
+    // a JdbcTemplate whose person table holds the given rows, handed over in id order
+    private static JdbcTemplate table(Map<Long, String> rows, Runnable beforeEachRow) throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (var row : new TreeMap<>(rows).entrySet()) {
+                beforeEachRow.run();
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("id")).thenReturn(row.getKey());
+                when(rs.getString("first_name")).thenReturn(row.getValue());
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        return jdbcTemplate;
+    }
+
+    @Test
+    void testResyncPicksUpWritesMadeElsewhere() throws Exception {
+        Map<Long, String> rows = new HashMap<>(Map.of(1L, "Alison", 2L, "Leandro", 3L, "Ayrton"));
+        index = new PersonNameIndex(table(rows, () -> { }), true);
+        index.rebuild();
+
+        // another instance renames, deletes and inserts
+        rows.put(1L, "Bruna");
+        rows.remove(3L);
+        rows.put(4L, "Ayla");
+        index.resync();
+
+        var byName = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "firstName"));
+        assertEquals(List.of(4L, 1L, 2L), index.search("a", byName).getContent());
+        assertEquals(List.of(), index.search("alis", byName).getContent());
+        assertEquals(List.of(), index.search("ayrt", byName).getContent());
+    }
+
+    @Test
+    void testResyncLeavesLocalWritesAlone() throws Exception {
+        Map<Long, String> rows = new HashMap<>(Map.of(1L, "Alison", 2L, "Leandro"));
+        AtomicBoolean resyncing = new AtomicBoolean();
+        index = new PersonNameIndex(table(rows, () -> {
+            // committed here after the pass read its rows: newer than what the pass holds
+            if (resyncing.getAndSet(false)) {
+                index.put(2L, "Carla");
+                index.put(5L, "Marcos");
+            }
+        }), true);
+        index.rebuild();
+
+        resyncing.set(true);
+        index.resync();
+
+        var byName = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "firstName"));
+        assertEquals(List.of(2L), index.search("carl", byName).getContent());
+        assertEquals(List.of(5L), index.search("marc", byName).getContent());
+        assertEquals(List.of(), index.search("leand", byName).getContent());
+    }
+}
@@ -0,0 +1,109 @@
+package br.com.restapi.unittests.security;
+
+import br.com.restapi.exception.InvalidJwtAuthenticationException;
+import br.com.restapi.security.jwt.InMemoryRefreshTokenStore;
+import br.com.restapi.security.jwt.JwtTokenProvider;
+import br.com.restapi.security.jwt.PrincipalCache;
+import br.com.restapi.security.jwt.TokenRevocationList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtTokenProviderTest {
+    private JwtTokenProvider provider;
+    private UserDetailsService userDetailsService;
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void setup() {
+        userDetailsService = mock(UserDetailsService.class);
+        revocationList = new TokenRevocationList(3600000L);
+
+        provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "secretKey", "53cr37");
+        ReflectionTestUtils.setField(provider, "trustedClaims", true);
+        ReflectionTestUtils.setField(provider, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(provider, "principalCache",
+                new PrincipalCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(provider, "revocationList", revocationList);
+        ReflectionTestUtils.setField(provider, "refreshTokenStore", new InMemoryRefreshTokenStore(100, 3600000L));
+        ReflectionTestUtils.invokeMethod(provider, "init");
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testTrustedClaimsSkipUserLookup() {
+        var token = provider.createAccessToken("alison", List.of("ADMIN", "MANAGER")).getAccessToken();
+
+        var auth = provider.getAuthentication(provider.verifyToken(token));
+
+        assertEquals("alison", auth.getName());
+        assertEquals(List.of("ADMIN", "MANAGER"),
+                auth.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void testRevokedTokenIsRejected() throws Exception {
+        var token = provider.createAccessToken("alison", List.of("ADMIN")).getAccessToken();
+
+        // the revoke has to land in a later second than the token's iat
+        Thread.sleep(1000 - System.currentTimeMillis() % 1000);
+        revocationList.revoke("alison");
+
+        Exception exception = assertThrows(InvalidJwtAuthenticationException.class,
+                () -> provider.verifyToken(token));
+        assertEquals("Revoked JWT token", exception.getMessage());
+    }
+
+    @Test
+    void testTokenIssuedRightAfterRevokeIsAccepted() {
+        revocationList.revoke("alison");
+
+        var token = provider.createAccessToken("alison", List.of("ADMIN")).getAccessToken();
+
+        assertEquals("alison", provider.verifyToken(token).getSubject());
+    }
+
+    @Test
+    void testRefreshTokenIsRotated() {
+        var refreshToken = provider.createAccessToken("alison", List.of("ADMIN")).getRefreshToken();
+
+        var refreshed = provider.refreshToken("alison", refreshToken);
+
+        assertNotNull(refreshed.getAccessToken());
+        assertNotEquals(refreshToken, refreshed.getRefreshToken());
+        assertEquals(List.of("ADMIN"),
+                provider.verifyToken(refreshed.getAccessToken()).getClaim("roles").asList(String.class));
+    }
+
+    @Test
+    void testReusedRefreshTokenRevokesFamily() {
+        var refreshToken = provider.createAccessToken("alison", List.of("ADMIN")).getRefreshToken();
+        var rotated = provider.refreshToken("alison", refreshToken).getRefreshToken();
+
+        assertThrows(InvalidJwtAuthenticationException.class,
+                () -> provider.refreshToken("alison", refreshToken));
+        assertThrows(InvalidJwtAuthenticationException.class,
+                () -> provider.refreshToken("alison", rotated));
+    }
+}
@@ -0,0 +1,80 @@
+package br.com.restapi.unittests.security;
+
+import br.com.restapi.model.User;
+import br.com.restapi.security.jwt.PrincipalCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrincipalCacheTest {
+    private PrincipalCache cache;
+    private SimpleMeterRegistry registry;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setup() {
+        registry = new SimpleMeterRegistry();
+        cache = new PrincipalCache(100, Duration.ofMinutes(1), registry);
+        loads = new AtomicInteger();
+    }
+
+    private UserDetails load(String userName) {
+        loads.incrementAndGet();
+        User user = new User();
+        user.setUserName(userName);
+        return user;
+    }
+
+    @Test
+    void testSameTokenIsLoadedOnce() {
+        var first = cache.get("alison", 1000L, this::load);
+        var second = cache.get("alison", 1000L, this::load);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "jwt.principals")
+                .tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "jwt.principals")
+                .tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void testNewTokenIsLoadedAgain() {
+        cache.get("alison", 1000L, this::load);
+        cache.get("alison", 2000L, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testEvictRemovesEveryTokenOfSubject() {
+        cache.get("alison", 1000L, this::load);
+        cache.get("alison", 2000L, this::load);
+        cache.get("juliana", 1000L, this::load);
+
+        cache.evict("alison");
+
+        cache.get("alison", 1000L, this::load);
+        cache.get("alison", 2000L, this::load);
+        cache.get("juliana", 1000L, this::load);
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void testLoadRacingAnEvictionIsNotKept() {
+        // the user changes and is evicted while their old row is still being loaded
+        var stale = cache.get("alison", 1000L, userName -> {
+            cache.evict(userName);
+            return load(userName);
+        });
+
+        assertNotSame(stale, cache.get("alison", 1000L, this::load));
+        assertEquals(2, loads.get());
+    }
+}
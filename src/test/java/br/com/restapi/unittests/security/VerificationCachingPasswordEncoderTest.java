@@ -0,0 +1,53 @@
+package br.com.restapi.unittests.security;
+
+import br.com.restapi.security.password.VerificationCachingPasswordEncoder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class VerificationCachingPasswordEncoderTest {
+    private PasswordEncoder delegate;
+    private VerificationCachingPasswordEncoder encoder;
+
+    @BeforeEach
+    void setup() {
+        delegate = mock(PasswordEncoder.class);
+        encoder = new VerificationCachingPasswordEncoder(delegate, Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    void testSuccessfulMatchIsCached() {
+        when(delegate.matches("admin123", "hash")).thenReturn(true);
+
+        assertTrue(encoder.matches("admin123", "hash"));
+        assertTrue(encoder.matches("admin123", "hash"));
+
+        verify(delegate, times(1)).matches("admin123", "hash");
+    }
+
+    @Test
+    void testFailedMatchIsNotCached() {
+        when(delegate.matches("wrong", "hash")).thenReturn(false);
+
+        assertFalse(encoder.matches("wrong", "hash"));
+        assertFalse(encoder.matches("wrong", "hash"));
+
+        verify(delegate, times(2)).matches("wrong", "hash");
+    }
+
+    @Test
+    void testChangedHashIsVerifiedAgain() {
+        when(delegate.matches(eq("admin123"), anyString())).thenReturn(true);
+
+        encoder.matches("admin123", "hash");
+        encoder.matches("admin123", "rehashed");
+
+        verify(delegate, times(1)).matches("admin123", "hash");
+        verify(delegate, times(1)).matches("admin123", "rehashed");
+    }
+}
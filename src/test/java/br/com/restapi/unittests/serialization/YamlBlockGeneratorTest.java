@@ -0,0 +1,90 @@
+package br.com.restapi.unittests.serialization;
+
+import br.com.restapi.YamlJacksonToHttpMessageConverter;
+import br.com.restapi.serialization.YamlBlockGenerator;
+import br.com.restapi.unittests.mapper.mocks.MockBook;
+import br.com.restapi.unittests.mapper.mocks.MockPerson;
+import br.com.restapi.vo.v1.BookVO;
+import br.com.restapi.vo.v1.PersonVO;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class YamlBlockGeneratorTest {
+
+    private final YAMLMapper mapper = (YAMLMapper) new YAMLMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    private String write(Object value) throws Exception {
+        var out = new StringWriter();
+        try (var generator = new YamlBlockGenerator(mapper.getFactory().getGeneratorFeatures(), mapper, out)) {
+            mapper.writeValue(generator, value);
+        }
+        return out.toString();
+    }
+
+    @Test
+    void testMatchesYamlMapperForPages() throws Exception {
+        MockPerson mockPerson = new MockPerson();
+        MockBook mockBook = new MockBook();
+        List<EntityModel<PersonVO>> people = new ArrayList<>();
+        List<EntityModel<BookVO>> books = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            PersonVO person = mockPerson.mockVO(i);
+            person.setVersion((long) i);
+            person.add(Link.of("http://localhost/api/person/v1/" + i));
+            people.add(EntityModel.of(person));
+            books.add(EntityModel.of(mockBook.mockVO(i)));
+        }
+        var metadata = new PagedModel.PageMetadata(3, 0, 7);
+
+        var personPage = PagedModel.of(people, metadata, Link.of("http://localhost/api/person/v1?page=0"));
+        var bookPage = PagedModel.of(books, metadata);
+        assertEquals(mapper.writeValueAsString(personPage), write(personPage));
+        assertEquals(mapper.writeValueAsString(bookPage), write(bookPage));
+        assertEquals(mapper.writeValueAsString(people.get(1).getContent()), write(people.get(1).getContent()));
+    }
+
+    @Test
+    void testMatchesYamlMapperForNestingAndEscapes() throws Exception {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("nested", List.of(List.of(1, 2), Map.of(), List.of(), List.of(Map.of("x", 1.5))));
+        value.put("empty", Map.of());
+        value.put("text", "multi\nline \"quoted\" \\ tab\t é \u0001 \u0085 😀");
+        value.put("n", Arrays.asList(null, true, new BigDecimal("1.10"), Long.MAX_VALUE));
+        value.put("with space", "");
+        value.put("123", "number-like key");
+
+        assertEquals(mapper.writeValueAsString(value), write(value));
+        assertEquals(mapper.writeValueAsString("root"), write("root"));
+        assertEquals(mapper.writeValueAsString(List.of()), write(List.of()));
+    }
+
+    @Test
+    void testConverterReadsBackWhatItWrites() throws Exception {
+        var converter = new YamlJacksonToHttpMessageConverter();
+        PersonVO person = new MockPerson().mockVO(4);
+        person.setEnabled(true);
+
+        var out = new MockHttpOutputMessage();
+        converter.write(person, MediaType.parseMediaType("application/x-yaml"), out);
+
+        assertEquals(mapper.writeValueAsString(person), out.getBodyAsString(StandardCharsets.UTF_8));
+        assertEquals(person, mapper.readValue(out.getBodyAsBytes(), PersonVO.class));
+    }
+}